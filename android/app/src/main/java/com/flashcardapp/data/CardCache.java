@@ -0,0 +1,190 @@
+package com.flashcardapp.data;
+
+import com.flashcardapp.models.Flashcard;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-memory card cache bounded by estimated byte size.
+ *
+ * Least-recently-used cards are evicted first, except for the cards pinned
+ * around the current position. Not thread-safe - use from the main thread.
+ */
+public class CardCache {
+
+    // Rough per-object costs on ART (object headers, fields, map entry)
+    private static final int CARD_OVERHEAD_BYTES = 96;
+    private static final int STRING_OVERHEAD_BYTES = 40;
+
+    private static class Entry {
+        final Flashcard card;
+        final long bytes;
+
+        Entry(Flashcard card, long bytes) {
+            this.card = card;
+            this.bytes = bytes;
+        }
+    }
+
+    // Access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final long maxBytes;
+    private long currentBytes = 0;
+
+    private int pinnedFirst = 0;
+    private int pinnedLast = -1;
+
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+
+    public CardCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    // Returns the cached card (marking it recently used), or null on a miss
+    public Flashcard get(int cardNumber) {
+        Entry entry = entries.get(cardNumber);
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.card;
+    }
+
+    // Presence check that does not touch LRU order or hit/miss counters
+    public boolean containsKey(int cardNumber) {
+        return entries.containsKey(cardNumber);
+    }
+
+    // The cached card or null, for showing rather than loading: not counted as a hit or miss
+    public Flashcard peek(int cardNumber) {
+        Entry entry = entries.get(cardNumber);
+        return entry != null ? entry.card : null;
+    }
+
+    public void put(int cardNumber, Flashcard card) {
+        long bytes = estimateBytes(card);
+        Entry previous = entries.put(cardNumber, new Entry(card, bytes));
+        if (previous != null) {
+            currentBytes -= previous.bytes;
+        }
+        currentBytes += bytes;
+        trimToSize();
+    }
+
+    // All cached cards, without touching LRU order or hit/miss counters
+    public List<Flashcard> cards() {
+        List<Flashcard> cards = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            cards.add(entry.card);
+        }
+        return cards;
+    }
+
+    public void remove(int cardNumber) {
+        Entry removed = entries.remove(cardNumber);
+        if (removed != null) {
+            currentBytes -= removed.bytes;
+        }
+    }
+
+    // Drops cards read before the given sheet version; returns how many were removed
+    public int removeOlderThan(int version) {
+        int removed = 0;
+        Iterator<Map.Entry<Integer, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            if (entry.card.getVersion() < version) {
+                currentBytes -= entry.bytes;
+                iterator.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    // Protects cardNumber +/- radius from eviction
+    public void pinAround(int cardNumber, int radius) {
+        pinnedFirst = cardNumber - radius;
+        pinnedLast = cardNumber + radius;
+        trimToSize();
+    }
+
+    public void clear() {
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public long sizeBytes() {
+        return currentBytes;
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    private boolean isPinned(int cardNumber) {
+        return cardNumber >= pinnedFirst && cardNumber <= pinnedLast;
+    }
+
+    private void trimToSize() {
+        Iterator<Map.Entry<Integer, Entry>> iterator = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<Integer, Entry> eldest = iterator.next();
+            if (isPinned(eldest.getKey())) {
+                continue; // Pinned cards may push the cache over budget
+            }
+            currentBytes -= eldest.getValue().bytes;
+            iterator.remove();
+            evictionCount++;
+        }
+    }
+
+    static long estimateBytes(Flashcard card) {
+        return CARD_OVERHEAD_BYTES
+                + estimateBytes(card.getFrontSide())
+                + estimateBytes(card.getBackSide())
+                + estimateBytes(card.getFrontPronunciation())
+                + estimateBytes(card.getBackPronunciation())
+                + estimateBytes(card.getFrontSideExtra())
+                + estimateBytes(card.getBackSideExtra());
+    }
+
+    private static long estimateBytes(String value) {
+        // Strings are UTF-16 on Android: two bytes per char
+        return value == null ? 0 : STRING_OVERHEAD_BYTES + 2L * value.length();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "CardCache[%d cards, %d/%d KB, hits=%d, misses=%d, evictions=%d]",
+                entries.size(), currentBytes / 1024, maxBytes / 1024, hitCount, missCount, evictionCount);
+    }
+}
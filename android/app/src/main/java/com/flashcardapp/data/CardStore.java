@@ -0,0 +1,247 @@
+package com.flashcardapp.data;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import com.flashcardapp.models.CardChange;
+import com.flashcardapp.models.ChangeFeed;
+import com.flashcardapp.models.Flashcard;
+import com.flashcardapp.models.PendingMutation;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent card store keyed by (sheet name, card number).
+ *
+ * Changes still queued in the MutationOutbox are applied to every card
+ * written here, so a server copy fetched before they were saved never
+ * reverts them.
+ *
+ * Methods touch the disk, so call them from a background thread.
+ */
+public class CardStore {
+
+    private static final String TAG = "CardStore";
+
+    private static CardStore instance;
+
+    private final FlashcardDatabase database;
+
+    public static synchronized CardStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new CardStore(FlashcardDatabase.getInstance(context));
+        }
+        return instance;
+    }
+
+    private CardStore(FlashcardDatabase database) {
+        this.database = database;
+    }
+
+    // Returns the stored card, or null if it has never been downloaded
+    public Flashcard getCard(String sheetName, int cardNumber) {
+        SQLiteDatabase db = database.getReadableDatabase();
+        try (Cursor cursor = db.query(FlashcardDatabase.TABLE_CARDS, null,
+                FlashcardDatabase.COLUMN_SHEET_NAME + " = ? AND " + FlashcardDatabase.COLUMN_CARD_NUMBER + " = ?",
+                new String[]{sheetName, String.valueOf(cardNumber)},
+                null, null, null)) {
+            if (cursor.moveToFirst()) {
+                return fromCursor(cursor);
+            }
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to read card " + cardNumber + " of " + sheetName, e);
+        }
+        return null;
+    }
+
+    public void putCard(String sheetName, Flashcard card) {
+        SQLiteDatabase db = database.getWritableDatabase();
+        try {
+            writeCard(db, sheetName, card, MutationOutbox.queryCardChanges(db, sheetName));
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to store card " + card.getCurrentNum() + " of " + sheetName, e);
+        }
+    }
+
+    // Stores a whole batch in a single transaction
+    public void putCards(String sheetName, List<Flashcard> cards) {
+        SQLiteDatabase db = database.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            Map<Integer, List<PendingMutation>> pending = MutationOutbox.queryCardChanges(db, sheetName);
+            for (Flashcard card : cards) {
+                writeCard(db, sheetName, card, pending);
+            }
+            db.setTransactionSuccessful();
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to store " + cards.size() + " cards of " + sheetName, e);
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Applies a change feed in place. Cards read at or after sinceVersion are
+     * brought up to the feed's version; older cards keep their version and
+     * stay stale.
+     */
+    public void applyChanges(String sheetName, int sinceVersion, ChangeFeed feed) {
+        Map<Integer, CardChange> changes = feed.getChangesByCard();
+        SQLiteDatabase db = database.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            Map<Integer, List<PendingMutation>> pending = MutationOutbox.queryCardChanges(db, sheetName);
+            for (CardChange change : changes.values()) {
+                Flashcard card = getCard(sheetName, change.getCardNumber());
+                if (card != null && card.getVersion() >= sinceVersion) {
+                    feed.applyTo(card, change);
+                    ContentValues values = toContentValues(sheetName, card);
+                    applyPending(values, pending.get(card.getCurrentNum()));
+                    db.insertWithOnConflict(FlashcardDatabase.TABLE_CARDS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+                }
+            }
+
+            // Every other card read since the base version is unchanged
+            ContentValues values = new ContentValues();
+            values.put(FlashcardDatabase.COLUMN_VERSION, feed.getVersion());
+            if (feed.getTotalCards() > 0) {
+                values.put(FlashcardDatabase.COLUMN_TOTAL_CARDS, feed.getTotalCards());
+            }
+            int updated = db.update(FlashcardDatabase.TABLE_CARDS, values,
+                    FlashcardDatabase.COLUMN_SHEET_NAME + " = ? AND " + FlashcardDatabase.COLUMN_VERSION + " >= ?",
+                    new String[]{sheetName, String.valueOf(sinceVersion)});
+
+            setSheetVersion(sheetName, feed.getVersion());
+            db.setTransactionSuccessful();
+            Log.d(TAG, "Applied " + changes.size() + " changes to " + sheetName + " v" + sinceVersion
+                    + "->v" + feed.getVersion() + ", " + updated + " stored cards current");
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to apply changes to " + sheetName, e);
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    // Latest sheet version seen from the server, or -1 if unknown
+    public int getSheetVersion(String sheetName) {
+        SQLiteDatabase db = database.getReadableDatabase();
+        try (Cursor cursor = db.query(FlashcardDatabase.TABLE_SHEET_META,
+                new String[]{FlashcardDatabase.COLUMN_VERSION},
+                FlashcardDatabase.COLUMN_SHEET_NAME + " = ?", new String[]{sheetName},
+                null, null, null)) {
+            if (cursor.moveToFirst()) {
+                return cursor.getInt(0);
+            }
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to read version of " + sheetName, e);
+        }
+        return -1;
+    }
+
+    // Versions only increase, so an older version than the stored one is ignored
+    public void setSheetVersion(String sheetName, int version) {
+        if (version <= getSheetVersion(sheetName)) {
+            return;
+        }
+        ContentValues values = new ContentValues();
+        values.put(FlashcardDatabase.COLUMN_SHEET_NAME, sheetName);
+        values.put(FlashcardDatabase.COLUMN_VERSION, version);
+        SQLiteDatabase db = database.getWritableDatabase();
+        try {
+            db.insertWithOnConflict(FlashcardDatabase.TABLE_SHEET_META, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to store version of " + sheetName, e);
+        }
+    }
+
+    public void clearSheet(String sheetName) {
+        SQLiteDatabase db = database.getWritableDatabase();
+        try {
+            int deleted = db.delete(FlashcardDatabase.TABLE_CARDS,
+                    FlashcardDatabase.COLUMN_SHEET_NAME + " = ?", new String[]{sheetName});
+            Log.d(TAG, "Cleared " + deleted + " stored cards of " + sheetName);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to clear stored cards of " + sheetName, e);
+        }
+    }
+
+    /**
+     * Partial cards (light projection) keep the heavy columns of a stored copy
+     * read at the same version; otherwise those columns are cleared so they
+     * are fetched again when the card is shown.
+     */
+    private void writeCard(SQLiteDatabase db, String sheetName, Flashcard card,
+                           Map<Integer, List<PendingMutation>> pending) {
+        ContentValues values = toContentValues(sheetName, card);
+        applyPending(values, pending.get(card.getCurrentNum()));
+        if (card.isPartial()) {
+            // Merge into the values rather than the card, which the UI thread may be showing
+            Flashcard stored = getCard(sheetName, card.getCurrentNum());
+            if (stored != null && stored.getVersion() == card.getVersion()) {
+                putIfMissing(values, FlashcardDatabase.COLUMN_FRONT_PRONUNCIATION, stored.getFrontPronunciation());
+                putIfMissing(values, FlashcardDatabase.COLUMN_BACK_PRONUNCIATION, stored.getBackPronunciation());
+                putIfMissing(values, FlashcardDatabase.COLUMN_FRONT_SIDE_EXTRA, stored.getFrontSideExtra());
+                putIfMissing(values, FlashcardDatabase.COLUMN_BACK_SIDE_EXTRA, stored.getBackSideExtra());
+            }
+        }
+        db.insertWithOnConflict(FlashcardDatabase.TABLE_CARDS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    // Queued changes win over the copy being stored
+    private static void applyPending(ContentValues values, List<PendingMutation> mutations) {
+        if (mutations == null) {
+            return;
+        }
+        for (PendingMutation mutation : mutations) {
+            if (PendingMutation.TYPE_IMPORTANCE.equals(mutation.getType())) {
+                values.put(FlashcardDatabase.COLUMN_IMPORTANCE, mutation.getImportance());
+            } else if ("front".equals(mutation.getSide())) {
+                values.put(FlashcardDatabase.COLUMN_FRONT_SIDE, mutation.getHtml());
+            } else if ("back".equals(mutation.getSide())) {
+                values.put(FlashcardDatabase.COLUMN_BACK_SIDE, mutation.getHtml());
+            }
+        }
+    }
+
+    private static void putIfMissing(ContentValues values, String column, String value) {
+        if (values.getAsString(column) == null) {
+            values.put(column, value);
+        }
+    }
+
+    private static ContentValues toContentValues(String sheetName, Flashcard card) {
+        ContentValues values = new ContentValues();
+        values.put(FlashcardDatabase.COLUMN_SHEET_NAME, sheetName);
+        values.put(FlashcardDatabase.COLUMN_CARD_NUMBER, card.getCurrentNum());
+        values.put(FlashcardDatabase.COLUMN_FRONT_SIDE, card.getFrontSide());
+        values.put(FlashcardDatabase.COLUMN_BACK_SIDE, card.getBackSide());
+        values.put(FlashcardDatabase.COLUMN_TOTAL_CARDS, card.getTotalCards());
+        values.put(FlashcardDatabase.COLUMN_IMPORTANCE, card.getImportance());
+        values.put(FlashcardDatabase.COLUMN_FRONT_PRONUNCIATION, card.getFrontPronunciation());
+        values.put(FlashcardDatabase.COLUMN_BACK_PRONUNCIATION, card.getBackPronunciation());
+        values.put(FlashcardDatabase.COLUMN_FRONT_SIDE_EXTRA, card.getFrontSideExtra());
+        values.put(FlashcardDatabase.COLUMN_BACK_SIDE_EXTRA, card.getBackSideExtra());
+        values.put(FlashcardDatabase.COLUMN_UPDATED_AT, System.currentTimeMillis());
+        values.put(FlashcardDatabase.COLUMN_VERSION, card.getVersion());
+        return values;
+    }
+
+    private static Flashcard fromCursor(Cursor cursor) {
+        Flashcard card = new Flashcard();
+        card.setCurrentNum(cursor.getInt(cursor.getColumnIndexOrThrow(FlashcardDatabase.COLUMN_CARD_NUMBER)));
+        card.setFrontSide(cursor.getString(cursor.getColumnIndexOrThrow(FlashcardDatabase.COLUMN_FRONT_SIDE)));
+        card.setBackSide(cursor.getString(cursor.getColumnIndexOrThrow(FlashcardDatabase.COLUMN_BACK_SIDE)));
+        card.setTotalCards(cursor.getInt(cursor.getColumnIndexOrThrow(FlashcardDatabase.COLUMN_TOTAL_CARDS)));
+        card.setImportance(cursor.getInt(cursor.getColumnIndexOrThrow(FlashcardDatabase.COLUMN_IMPORTANCE)));
+        card.setFrontPronunciation(cursor.getString(cursor.getColumnIndexOrThrow(FlashcardDatabase.COLUMN_FRONT_PRONUNCIATION)));
+        card.setBackPronunciation(cursor.getString(cursor.getColumnIndexOrThrow(FlashcardDatabase.COLUMN_BACK_PRONUNCIATION)));
+        card.setFrontSideExtra(cursor.getString(cursor.getColumnIndexOrThrow(FlashcardDatabase.COLUMN_FRONT_SIDE_EXTRA)));
+        card.setBackSideExtra(cursor.getString(cursor.getColumnIndexOrThrow(FlashcardDatabase.COLUMN_BACK_SIDE_EXTRA)));
+        card.setVersion(cursor.getInt(cursor.getColumnIndexOrThrow(FlashcardDatabase.COLUMN_VERSION)));
+        return card;
+    }
+}
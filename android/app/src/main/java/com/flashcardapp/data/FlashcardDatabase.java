@@ -0,0 +1,112 @@
+package com.flashcardapp.data;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+/**
+ * Local SQLite database holding cards downloaded from Google Sheets
+ */
+class FlashcardDatabase extends SQLiteOpenHelper {
+
+    private static final String DATABASE_NAME = "flashcards.db";
+    private static final int DATABASE_VERSION = 3;
+
+    // Cards table - one row per (sheet, card number)
+    static final String TABLE_CARDS = "cards";
+    static final String COLUMN_SHEET_NAME = "sheet_name";
+    static final String COLUMN_CARD_NUMBER = "card_number";
+    static final String COLUMN_FRONT_SIDE = "front_side";
+    static final String COLUMN_BACK_SIDE = "back_side";
+    static final String COLUMN_TOTAL_CARDS = "total_cards";
+    static final String COLUMN_IMPORTANCE = "importance";
+    static final String COLUMN_FRONT_PRONUNCIATION = "front_pronunciation";
+    static final String COLUMN_BACK_PRONUNCIATION = "back_pronunciation";
+    static final String COLUMN_FRONT_SIDE_EXTRA = "front_side_extra";
+    static final String COLUMN_BACK_SIDE_EXTRA = "back_side_extra";
+    static final String COLUMN_UPDATED_AT = "updated_at";
+    static final String COLUMN_VERSION = "version"; // Sheet version the row was read at (added in version 3)
+
+    // Latest known version per sheet (added in version 3)
+    static final String TABLE_SHEET_META = "sheet_meta";
+
+    // Outbox of changes not yet written to Google Sheets (added in version 2)
+    static final String TABLE_MUTATIONS = "pending_mutations";
+    static final String COLUMN_ID = "_id";
+    static final String COLUMN_TYPE = "type";
+    static final String COLUMN_COLLAPSE_KEY = "collapse_key";
+    static final String COLUMN_SIDE = "side";
+    static final String COLUMN_HTML = "html";
+    static final String COLUMN_ATTEMPTS = "attempts";
+    static final String COLUMN_CREATED_AT = "created_at";
+
+    private static FlashcardDatabase instance;
+
+    static synchronized FlashcardDatabase getInstance(Context context) {
+        if (instance == null) {
+            instance = new FlashcardDatabase(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private FlashcardDatabase(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        // Composite primary key doubles as the (sheet, card number) lookup index
+        db.execSQL("CREATE TABLE " + TABLE_CARDS + " ("
+                + COLUMN_SHEET_NAME + " TEXT NOT NULL, "
+                + COLUMN_CARD_NUMBER + " INTEGER NOT NULL, "
+                + COLUMN_FRONT_SIDE + " TEXT, "
+                + COLUMN_BACK_SIDE + " TEXT, "
+                + COLUMN_TOTAL_CARDS + " INTEGER NOT NULL DEFAULT 0, "
+                + COLUMN_IMPORTANCE + " INTEGER NOT NULL DEFAULT 0, "
+                + COLUMN_FRONT_PRONUNCIATION + " TEXT, "
+                + COLUMN_BACK_PRONUNCIATION + " TEXT, "
+                + COLUMN_FRONT_SIDE_EXTRA + " TEXT, "
+                + COLUMN_BACK_SIDE_EXTRA + " TEXT, "
+                + COLUMN_UPDATED_AT + " INTEGER NOT NULL DEFAULT 0, "
+                + COLUMN_VERSION + " INTEGER NOT NULL DEFAULT 0, "
+                + "PRIMARY KEY (" + COLUMN_SHEET_NAME + ", " + COLUMN_CARD_NUMBER + "))");
+        createMutationsTable(db);
+        createSheetMetaTable(db);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < 2) {
+            createMutationsTable(db);
+        }
+        if (oldVersion < 3) {
+            // Existing rows get version 0, so they are revalidated on first use
+            db.execSQL("ALTER TABLE " + TABLE_CARDS + " ADD COLUMN "
+                    + COLUMN_VERSION + " INTEGER NOT NULL DEFAULT 0");
+            createSheetMetaTable(db);
+        }
+    }
+
+    private static void createSheetMetaTable(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_SHEET_META + " ("
+                + COLUMN_SHEET_NAME + " TEXT PRIMARY KEY, "
+                + COLUMN_VERSION + " INTEGER NOT NULL DEFAULT 0)");
+    }
+
+    private static void createMutationsTable(SQLiteDatabase db) {
+        // Rows are replayed in _id order; collapse_key finds entries a newer change supersedes
+        db.execSQL("CREATE TABLE " + TABLE_MUTATIONS + " ("
+                + COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + COLUMN_TYPE + " TEXT NOT NULL, "
+                + COLUMN_COLLAPSE_KEY + " TEXT NOT NULL, "
+                + COLUMN_SHEET_NAME + " TEXT NOT NULL, "
+                + COLUMN_CARD_NUMBER + " INTEGER NOT NULL, "
+                + COLUMN_IMPORTANCE + " INTEGER NOT NULL DEFAULT 0, "
+                + COLUMN_SIDE + " TEXT, "
+                + COLUMN_HTML + " TEXT, "
+                + COLUMN_ATTEMPTS + " INTEGER NOT NULL DEFAULT 0, "
+                + COLUMN_CREATED_AT + " INTEGER NOT NULL DEFAULT 0)");
+        db.execSQL("CREATE INDEX idx_" + TABLE_MUTATIONS + "_" + COLUMN_COLLAPSE_KEY
+                + " ON " + TABLE_MUTATIONS + " (" + COLUMN_COLLAPSE_KEY + ")");
+    }
+}
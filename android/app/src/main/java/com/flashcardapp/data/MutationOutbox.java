@@ -0,0 +1,148 @@
+package com.flashcardapp.data;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import com.flashcardapp.models.PendingMutation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent queue of changes waiting to be written to Google Sheets.
+ *
+ * Entries survive process death and are replayed oldest first. Enqueuing a
+ * change replaces any queued change to the same cell, so only the latest
+ * value is sent. Methods touch the disk, so call them from a background thread.
+ */
+public class MutationOutbox {
+
+    private static final String TAG = "MutationOutbox";
+
+    private static MutationOutbox instance;
+
+    private final FlashcardDatabase database;
+
+    public static synchronized MutationOutbox getInstance(Context context) {
+        if (instance == null) {
+            instance = new MutationOutbox(FlashcardDatabase.getInstance(context));
+        }
+        return instance;
+    }
+
+    private MutationOutbox(FlashcardDatabase database) {
+        this.database = database;
+    }
+
+    // Queues a change, dropping queued changes it supersedes; returns the new id
+    public long enqueue(PendingMutation mutation) {
+        SQLiteDatabase db = database.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            int collapsed = db.delete(FlashcardDatabase.TABLE_MUTATIONS,
+                    FlashcardDatabase.COLUMN_COLLAPSE_KEY + " = ?",
+                    new String[]{mutation.getCollapseKey()});
+            long id = db.insertOrThrow(FlashcardDatabase.TABLE_MUTATIONS, null, toContentValues(mutation));
+            db.setTransactionSuccessful();
+            mutation.setId(id);
+            Log.d(TAG, "Queued " + mutation + (collapsed > 0 ? " (replaced " + collapsed + ")" : ""));
+            return id;
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to queue " + mutation, e);
+            return -1;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    // Oldest queued changes first
+    public List<PendingMutation> peek(int limit) {
+        List<PendingMutation> mutations = new ArrayList<>();
+        SQLiteDatabase db = database.getReadableDatabase();
+        try (Cursor cursor = db.query(FlashcardDatabase.TABLE_MUTATIONS, null, null, null,
+                null, null, FlashcardDatabase.COLUMN_ID + " ASC", String.valueOf(limit))) {
+            while (cursor.moveToNext()) {
+                mutations.add(fromCursor(cursor));
+            }
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to read queued changes", e);
+        }
+        return mutations;
+    }
+
+    // Queued importance and content changes of a sheet by card number, oldest first. Used by CardStore in its own transactions.
+    static Map<Integer, List<PendingMutation>> queryCardChanges(SQLiteDatabase db, String sheetName) {
+        Map<Integer, List<PendingMutation>> byCard = new HashMap<>();
+        String selection = FlashcardDatabase.COLUMN_TYPE + " != ? AND " + FlashcardDatabase.COLUMN_SHEET_NAME + " = ?";
+        String[] args = {PendingMutation.TYPE_PROGRESS, sheetName};
+        try (Cursor cursor = db.query(FlashcardDatabase.TABLE_MUTATIONS, null, selection, args,
+                null, null, FlashcardDatabase.COLUMN_ID + " ASC")) {
+            while (cursor.moveToNext()) {
+                PendingMutation mutation = fromCursor(cursor);
+                List<PendingMutation> cardMutations = byCard.get(mutation.getCardNumber());
+                if (cardMutations == null) {
+                    cardMutations = new ArrayList<>();
+                    byCard.put(mutation.getCardNumber(), cardMutations);
+                }
+                cardMutations.add(mutation);
+            }
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to read queued card changes", e);
+        }
+        return byCard;
+    }
+
+    // Removes a change once the server has applied (or permanently rejected) it
+    public void remove(long id) {
+        SQLiteDatabase db = database.getWritableDatabase();
+        db.delete(FlashcardDatabase.TABLE_MUTATIONS,
+                FlashcardDatabase.COLUMN_ID + " = ?", new String[]{String.valueOf(id)});
+    }
+
+    // Records a rejected attempt; no-op if the change was replaced meanwhile
+    public void recordFailure(long id) {
+        SQLiteDatabase db = database.getWritableDatabase();
+        db.execSQL("UPDATE " + FlashcardDatabase.TABLE_MUTATIONS
+                        + " SET " + FlashcardDatabase.COLUMN_ATTEMPTS + " = " + FlashcardDatabase.COLUMN_ATTEMPTS + " + 1"
+                        + " WHERE " + FlashcardDatabase.COLUMN_ID + " = ?",
+                new Object[]{id});
+    }
+
+    public int count() {
+        SQLiteDatabase db = database.getReadableDatabase();
+        return (int) DatabaseUtils.queryNumEntries(db, FlashcardDatabase.TABLE_MUTATIONS);
+    }
+
+    private static ContentValues toContentValues(PendingMutation mutation) {
+        ContentValues values = new ContentValues();
+        values.put(FlashcardDatabase.COLUMN_TYPE, mutation.getType());
+        values.put(FlashcardDatabase.COLUMN_COLLAPSE_KEY, mutation.getCollapseKey());
+        values.put(FlashcardDatabase.COLUMN_SHEET_NAME, mutation.getSheetName());
+        values.put(FlashcardDatabase.COLUMN_CARD_NUMBER, mutation.getCardNumber());
+        values.put(FlashcardDatabase.COLUMN_IMPORTANCE, mutation.getImportance());
+        values.put(FlashcardDatabase.COLUMN_SIDE, mutation.getSide());
+        values.put(FlashcardDatabase.COLUMN_HTML, mutation.getHtml());
+        values.put(FlashcardDatabase.COLUMN_ATTEMPTS, 0);
+        values.put(FlashcardDatabase.COLUMN_CREATED_AT, System.currentTimeMillis());
+        return values;
+    }
+
+    private static PendingMutation fromCursor(Cursor cursor) {
+        PendingMutation mutation = new PendingMutation();
+        mutation.setId(cursor.getLong(cursor.getColumnIndexOrThrow(FlashcardDatabase.COLUMN_ID)));
+        mutation.setType(cursor.getString(cursor.getColumnIndexOrThrow(FlashcardDatabase.COLUMN_TYPE)));
+        mutation.setSheetName(cursor.getString(cursor.getColumnIndexOrThrow(FlashcardDatabase.COLUMN_SHEET_NAME)));
+        mutation.setCardNumber(cursor.getInt(cursor.getColumnIndexOrThrow(FlashcardDatabase.COLUMN_CARD_NUMBER)));
+        mutation.setImportance(cursor.getInt(cursor.getColumnIndexOrThrow(FlashcardDatabase.COLUMN_IMPORTANCE)));
+        mutation.setSide(cursor.getString(cursor.getColumnIndexOrThrow(FlashcardDatabase.COLUMN_SIDE)));
+        mutation.setHtml(cursor.getString(cursor.getColumnIndexOrThrow(FlashcardDatabase.COLUMN_HTML)));
+        mutation.setAttempts(cursor.getInt(cursor.getColumnIndexOrThrow(FlashcardDatabase.COLUMN_ATTEMPTS)));
+        return mutation;
+    }
+}
@@ -0,0 +1,29 @@
+package com.flashcardapp.models;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * Cold start response: saved progress and the cards around it
+ */
+public class Bootstrap {
+    @SerializedName("sheetName")
+    private String sheetName; // Requested sheet, or the first one if it does not exist
+
+    @SerializedName("questionNumber")
+    private int questionNumber;
+
+    @SerializedName("version")
+    private int version;
+
+    @SerializedName("batch")
+    private FlashcardBatch batch; // Absent for an empty sheet
+
+    @SerializedName("untracked")
+    private boolean untracked; // Server cannot see sheet edits, so stored cards may be stale
+
+    public String getSheetName() { return sheetName; }
+    public int getQuestionNumber() { return questionNumber; }
+    public int getVersion() { return version; }
+    public FlashcardBatch getBatch() { return batch; }
+    public boolean isUntracked() { return untracked; }
+}
@@ -0,0 +1,47 @@
+package com.flashcardapp.models;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * Current values of the fields that changed on one card; unchanged fields are null
+ */
+public class CardChange {
+    @SerializedName("cardNumber")
+    private int cardNumber;
+
+    @SerializedName("frontSide")
+    private String frontSide;
+
+    @SerializedName("backSide")
+    private String backSide;
+
+    @SerializedName("frontPronunciation")
+    private String frontPronunciation;
+
+    @SerializedName("backPronunciation")
+    private String backPronunciation;
+
+    @SerializedName("frontSideExtra")
+    private String frontSideExtra;
+
+    @SerializedName("backSideExtra")
+    private String backSideExtra;
+
+    @SerializedName("importance")
+    private Integer importance;
+
+    public int getCardNumber() {
+        return cardNumber;
+    }
+
+    // Copies the changed fields onto a stored or cached card
+    public void applyTo(Flashcard card) {
+        if (frontSide != null) card.setFrontSide(frontSide);
+        if (backSide != null) card.setBackSide(backSide);
+        if (frontPronunciation != null) card.setFrontPronunciation(frontPronunciation);
+        if (backPronunciation != null) card.setBackPronunciation(backPronunciation);
+        if (frontSideExtra != null) card.setFrontSideExtra(frontSideExtra);
+        if (backSideExtra != null) card.setBackSideExtra(backSideExtra);
+        if (importance != null) card.setImportance(importance);
+    }
+}
@@ -0,0 +1,66 @@
+package com.flashcardapp.models;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cards changed between the version a client has and the current version.
+ * If resync is set the server could not describe the difference and the
+ * client has to treat everything older than version as stale.
+ */
+public class ChangeFeed {
+    @SerializedName("version")
+    private int version;
+
+    @SerializedName("resync")
+    private boolean resync;
+
+    @SerializedName("untracked")
+    private boolean untracked; // Server cannot see sheet edits, so every copy may be stale
+
+    @SerializedName("totalCards")
+    private int totalCards; // 0 if the feed is empty
+
+    @SerializedName("changes")
+    private List<CardChange> changes;
+
+    public int getVersion() {
+        return version;
+    }
+
+    public boolean isResync() {
+        return resync || changes == null;
+    }
+
+    public boolean isUntracked() {
+        return untracked;
+    }
+
+    public int getTotalCards() {
+        return totalCards;
+    }
+
+    public Map<Integer, CardChange> getChangesByCard() {
+        Map<Integer, CardChange> byCard = new HashMap<>();
+        if (changes != null) {
+            for (CardChange change : changes) {
+                byCard.put(change.getCardNumber(), change);
+            }
+        }
+        return byCard;
+    }
+
+    // Brings a card read at or after the feed's base version up to date
+    public void applyTo(Flashcard card, CardChange change) {
+        if (change != null) {
+            change.applyTo(card);
+        }
+        if (totalCards > 0) {
+            card.setTotalCards(totalCards);
+        }
+        card.setVersion(version);
+    }
+}
@@ -30,6 +30,9 @@ public class Flashcard {
     @SerializedName("backSideExtra")
     private String backSideExtra; // Column F - extra text for back side
 
+    @SerializedName("version")
+    private int version; // Sheet version the card was read at
+
     // Getters
     public String getFrontSide() { return frontSide; }
     public String getBackSide() { return backSide; }
@@ -40,6 +43,7 @@ public class Flashcard {
     public String getBackPronunciation() { return backPronunciation; }
     public String getFrontSideExtra() { return frontSideExtra; }
     public String getBackSideExtra() { return backSideExtra; }
+    public int getVersion() { return version; }
 
     // Setters
     public void setFrontSide(String frontSide) { this.frontSide = frontSide; }
@@ -51,4 +55,19 @@ public class Flashcard {
     public void setBackPronunciation(String backPronunciation) { this.backPronunciation = backPronunciation; }
     public void setFrontSideExtra(String frontSideExtra) { this.frontSideExtra = frontSideExtra; }
     public void setBackSideExtra(String backSideExtra) { this.backSideExtra = backSideExtra; }
+    public void setVersion(int version) { this.version = version; }
+
+    // True if the card was fetched with a light field projection and lacks the heavy columns
+    public boolean isPartial() {
+        return frontPronunciation == null || backPronunciation == null
+                || frontSideExtra == null || backSideExtra == null;
+    }
+
+    // Fills heavy fields this card lacks from another copy of the same card
+    public void fillMissingFrom(Flashcard other) {
+        if (frontPronunciation == null) frontPronunciation = other.frontPronunciation;
+        if (backPronunciation == null) backPronunciation = other.backPronunciation;
+        if (frontSideExtra == null) frontSideExtra = other.frontSideExtra;
+        if (backSideExtra == null) backSideExtra = other.backSideExtra;
+    }
 }
@@ -1,17 +1,31 @@
 package com.flashcardapp.models;
 
+import com.google.gson.annotations.JsonAdapter;
 import com.google.gson.annotations.SerializedName;
 import java.util.List;
 
+// Decoded by FlashcardBatchAdapter, which also understands the compact format
+@JsonAdapter(FlashcardBatchAdapter.class)
 public class FlashcardBatch {
     @SerializedName("cards")
     private List<Flashcard> cards;
 
+    @SerializedName("version")
+    private int version;
+
     public List<Flashcard> getCards() {
         return cards;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
     public void setCards(List<Flashcard> cards) {
         this.cards = cards;
     }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,82 @@
+package com.flashcardapp.models;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Reads getFlashcardBatch responses in either wire format:
+ *
+ *   {"cards": [{"frontSide": ..., "currentNum": ..., ...}, ...], "version": n}
+ *   {"format": "compact", "version": n, "totalCards": t, "startCard": s,
+ *    "fields": ["frontSide", ...], "rows": [["...", ...], ...]}
+ *
+ * Compact rows are decoded straight into Flashcard objects; card numbers
+ * follow from startCard and totalCards is shared by all of them. Parsing is
+ * done by FlashcardBatchReader, which can also stream the cards.
+ */
+public class FlashcardBatchAdapter implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (type.getRawType() != FlashcardBatch.class) {
+            return null;
+        }
+        return (TypeAdapter<T>) new Adapter(gson.getAdapter(Flashcard.class));
+    }
+
+    private static class Adapter extends TypeAdapter<FlashcardBatch> {
+
+        private final TypeAdapter<Flashcard> cardAdapter;
+        private final FlashcardBatchReader reader;
+
+        Adapter(TypeAdapter<Flashcard> cardAdapter) {
+            this.cardAdapter = cardAdapter;
+            this.reader = new FlashcardBatchReader(cardAdapter);
+        }
+
+        // Always writes the object format
+        @Override
+        public void write(JsonWriter out, FlashcardBatch batch) throws IOException {
+            if (batch == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("cards");
+            if (batch.getCards() == null) {
+                out.nullValue();
+            } else {
+                out.beginArray();
+                for (Flashcard card : batch.getCards()) {
+                    cardAdapter.write(out, card);
+                }
+                out.endArray();
+            }
+            out.name("version").value(batch.getVersion());
+            out.endObject();
+        }
+
+        @Override
+        public FlashcardBatch read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            FlashcardBatch batch = reader.read(in, card -> { });
+            if (batch.getCards() != null) {
+                for (Flashcard card : batch.getCards()) {
+                    card.setVersion(batch.getVersion());
+                }
+            }
+            return batch;
+        }
+    }
+}
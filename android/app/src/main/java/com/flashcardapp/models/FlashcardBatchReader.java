@@ -0,0 +1,170 @@
+package com.flashcardapp.models;
+
+import com.google.gson.JsonArray;
+import com.google.gson.TypeAdapter;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental reader for getFlashcardBatch responses in either wire format
+ * (see FlashcardBatchAdapter). Each card is passed to a sink as soon as it
+ * has been parsed, so callers can use the first cards of a large batch
+ * before the rest has arrived.
+ *
+ * Compact rows are only streamed once the shared fields preceding them are
+ * known; rows sent before those are buffered and passed on at the end.
+ * Cards get the batch version if it precedes them (as Code.gs sends it);
+ * otherwise callers set it on the cards after read() returns.
+ */
+public class FlashcardBatchReader {
+
+    public interface CardSink {
+        void onCard(Flashcard card) throws IOException;
+    }
+
+    private final TypeAdapter<Flashcard> cardAdapter;
+
+    public FlashcardBatchReader(TypeAdapter<Flashcard> cardAdapter) {
+        this.cardAdapter = cardAdapter;
+    }
+
+    /**
+     * Reads one batch object. The returned batch holds the version and every
+     * card passed to the sink, or no card list if the response had none
+     * (e.g. an error response).
+     */
+    public FlashcardBatch read(JsonReader in, CardSink sink) throws IOException {
+        FlashcardBatch batch = new FlashcardBatch();
+        List<Flashcard> cards = null;
+        List<String> fields = null;
+        JsonArray bufferedRows = null;
+        int totalCards = -1;
+        int startCard = -1;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "cards":
+                    cards = readCards(in, batch.getVersion(), sink);
+                    break;
+                case "version":
+                    batch.setVersion(in.nextInt());
+                    break;
+                case "totalCards":
+                    totalCards = in.nextInt();
+                    break;
+                case "startCard":
+                    startCard = in.nextInt();
+                    break;
+                case "fields":
+                    fields = readStrings(in);
+                    break;
+                case "rows":
+                    if (fields != null && totalCards >= 0 && startCard >= 0) {
+                        cards = readRows(in, fields, startCard, totalCards, batch.getVersion(), sink);
+                    } else {
+                        bufferedRows = JsonParser.parseReader(in).getAsJsonArray();
+                    }
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+
+        if (bufferedRows != null && fields != null) {
+            cards = readRows(new JsonReader(new StringReader(bufferedRows.toString())), fields,
+                    Math.max(startCard, 1), Math.max(totalCards, 0), batch.getVersion(), sink);
+        }
+        batch.setCards(cards);
+        return batch;
+    }
+
+    private List<Flashcard> readCards(JsonReader in, int version, CardSink sink) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        List<Flashcard> cards = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            Flashcard card = cardAdapter.read(in);
+            card.setVersion(version);
+            cards.add(card);
+            sink.onCard(card);
+        }
+        in.endArray();
+        return cards;
+    }
+
+    private static List<String> readStrings(JsonReader in) throws IOException {
+        List<String> strings = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            strings.add(in.nextString());
+        }
+        in.endArray();
+        return strings;
+    }
+
+    private static List<Flashcard> readRows(JsonReader in, List<String> fields, int startCard, int totalCards,
+                                            int version, CardSink sink) throws IOException {
+        List<Flashcard> cards = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            Flashcard card = new Flashcard();
+            card.setCurrentNum(startCard + cards.size());
+            card.setTotalCards(totalCards);
+            card.setVersion(version);
+            in.beginArray();
+            for (int i = 0; in.hasNext(); i++) {
+                readField(in, card, i < fields.size() ? fields.get(i) : "");
+            }
+            in.endArray();
+            cards.add(card);
+            sink.onCard(card);
+        }
+        in.endArray();
+        return cards;
+    }
+
+    private static void readField(JsonReader in, Flashcard card, String field) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return;
+        }
+        switch (field) {
+            case "frontSide":
+                card.setFrontSide(in.nextString());
+                break;
+            case "backSide":
+                card.setBackSide(in.nextString());
+                break;
+            case "frontPronunciation":
+                card.setFrontPronunciation(in.nextString());
+                break;
+            case "backPronunciation":
+                card.setBackPronunciation(in.nextString());
+                break;
+            case "frontSideExtra":
+                card.setFrontSideExtra(in.nextString());
+                break;
+            case "backSideExtra":
+                card.setBackSideExtra(in.nextString());
+                break;
+            case "importance":
+                card.setImportance(in.nextInt());
+                break;
+            default:
+                in.skipValue(); // Field added by a newer server
+                break;
+        }
+    }
+}
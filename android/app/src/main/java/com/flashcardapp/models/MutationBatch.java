@@ -0,0 +1,17 @@
+package com.flashcardapp.models;
+
+import com.google.gson.annotations.SerializedName;
+import java.util.List;
+
+public class MutationBatch {
+    @SerializedName("mutations")
+    private List<PendingMutation> mutations;
+
+    public MutationBatch(List<PendingMutation> mutations) {
+        this.mutations = mutations;
+    }
+
+    public List<PendingMutation> getMutations() {
+        return mutations;
+    }
+}
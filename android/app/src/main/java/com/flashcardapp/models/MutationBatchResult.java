@@ -0,0 +1,37 @@
+package com.flashcardapp.models;
+
+import com.google.gson.annotations.SerializedName;
+import java.util.List;
+
+public class MutationBatchResult {
+
+    // Outcome of one mutation, matched to the request by id
+    public static class Result {
+        @SerializedName("id")
+        private long id;
+
+        @SerializedName("success")
+        private boolean success;
+
+        @SerializedName("error")
+        private String error;
+
+        public long getId() { return id; }
+        public boolean isSuccess() { return success; }
+        public String getError() { return error; }
+    }
+
+    @SerializedName("results")
+    private List<Result> results;
+
+    @SerializedName("error")
+    private String error; // Whole batch failed, e.g. unknown action on an older deployment
+
+    public List<Result> getResults() {
+        return results;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
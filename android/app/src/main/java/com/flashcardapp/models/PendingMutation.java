@@ -0,0 +1,112 @@
+package com.flashcardapp.models;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * A change made on the device that still has to be written to Google Sheets
+ */
+public class PendingMutation {
+
+    public static final String TYPE_IMPORTANCE = "importance";
+    public static final String TYPE_PROGRESS = "progress";
+    public static final String TYPE_CONTENT = "content";
+
+    @SerializedName("id")
+    private long id;
+
+    @SerializedName("type")
+    private String type;
+
+    @SerializedName("sheetName")
+    private String sheetName;
+
+    @SerializedName("cardNumber")
+    private int cardNumber;
+
+    @SerializedName("importance")
+    private int importance; // TYPE_IMPORTANCE only
+
+    @SerializedName("side")
+    private String side; // TYPE_CONTENT only - "front" or "back"
+
+    @SerializedName("html")
+    private String html; // TYPE_CONTENT only
+
+    private transient int attempts;
+
+    public static PendingMutation importance(String sheetName, int cardNumber, int importance) {
+        PendingMutation mutation = new PendingMutation(TYPE_IMPORTANCE, sheetName, cardNumber);
+        mutation.importance = importance;
+        return mutation;
+    }
+
+    public static PendingMutation progress(String sheetName, int cardNumber) {
+        return new PendingMutation(TYPE_PROGRESS, sheetName, cardNumber);
+    }
+
+    public static PendingMutation content(String sheetName, int cardNumber, String side, String html) {
+        PendingMutation mutation = new PendingMutation(TYPE_CONTENT, sheetName, cardNumber);
+        mutation.side = side;
+        mutation.html = html;
+        return mutation;
+    }
+
+    public PendingMutation() {
+    }
+
+    private PendingMutation(String type, String sheetName, int cardNumber) {
+        this.type = type;
+        this.sheetName = sheetName;
+        this.cardNumber = cardNumber;
+    }
+
+    // Mutations with the same key overwrite the same cell, so only the newest matters
+    public String getCollapseKey() {
+        switch (type) {
+            case TYPE_PROGRESS:
+                return type + "|" + sheetName;
+            case TYPE_CONTENT:
+                return type + "|" + sheetName + "|" + cardNumber + "|" + side;
+            default:
+                return type + "|" + sheetName + "|" + cardNumber;
+        }
+    }
+
+    // Applies this change to a card read from the server before it was saved there
+    public void applyTo(Flashcard card) {
+        if (TYPE_IMPORTANCE.equals(type)) {
+            card.setImportance(importance);
+        } else if (TYPE_CONTENT.equals(type)) {
+            if ("front".equals(side)) {
+                card.setFrontSide(html);
+            } else if ("back".equals(side)) {
+                card.setBackSide(html);
+            }
+        }
+    }
+
+    // Getters
+    public long getId() { return id; }
+    public String getType() { return type; }
+    public String getSheetName() { return sheetName; }
+    public int getCardNumber() { return cardNumber; }
+    public int getImportance() { return importance; }
+    public String getSide() { return side; }
+    public String getHtml() { return html; }
+    public int getAttempts() { return attempts; }
+
+    // Setters
+    public void setId(long id) { this.id = id; }
+    public void setType(String type) { this.type = type; }
+    public void setSheetName(String sheetName) { this.sheetName = sheetName; }
+    public void setCardNumber(int cardNumber) { this.cardNumber = cardNumber; }
+    public void setImportance(int importance) { this.importance = importance; }
+    public void setSide(String side) { this.side = side; }
+    public void setHtml(String html) { this.html = html; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    @Override
+    public String toString() {
+        return type + "#" + id + "[" + sheetName + " card " + cardNumber + "]";
+    }
+}
@@ -0,0 +1,43 @@
+package com.flashcardapp.models;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * Manifest of a whole-sheet snapshot; the cards follow in chunkCount chunks
+ */
+public class SheetSnapshot {
+    @SerializedName("sheetName")
+    private String sheetName;
+
+    @SerializedName("version")
+    private int version;
+
+    @SerializedName("totalCards")
+    private int totalCards;
+
+    @SerializedName("chunkCount")
+    private int chunkCount;
+
+    @SerializedName("error")
+    private String error;
+
+    public String getSheetName() {
+        return sheetName;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public int getTotalCards() {
+        return totalCards;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
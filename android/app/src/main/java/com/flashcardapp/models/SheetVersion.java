@@ -0,0 +1,15 @@
+package com.flashcardapp.models;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * Current data version of a sheet
+ */
+public class SheetVersion {
+    @SerializedName("version")
+    private int version;
+
+    public int getVersion() {
+        return version;
+    }
+}
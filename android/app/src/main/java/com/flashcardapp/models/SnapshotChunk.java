@@ -0,0 +1,34 @@
+package com.flashcardapp.models;
+
+import com.google.gson.annotations.SerializedName;
+import java.util.List;
+
+public class SnapshotChunk {
+    @SerializedName("version")
+    private int version;
+
+    @SerializedName("chunk")
+    private int chunk;
+
+    @SerializedName("cards")
+    private List<Flashcard> cards;
+
+    @SerializedName("error")
+    private String error;
+
+    public int getVersion() {
+        return version;
+    }
+
+    public int getChunk() {
+        return chunk;
+    }
+
+    public List<Flashcard> getCards() {
+        return cards;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
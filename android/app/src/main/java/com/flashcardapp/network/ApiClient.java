@@ -18,7 +18,8 @@ public class ApiClient {
     private static Retrofit retrofit = null;
     private static String currentBaseUrl = null;
 
-    public static Retrofit getClient(Context context) {
+    // Synchronized: also called from the outbox sync thread
+    public static synchronized Retrofit getClient(Context context) {
         SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
         String baseUrl = prefs.getString(KEY_API_URL, null);
 
@@ -36,13 +37,15 @@ public class ApiClient {
         if (retrofit == null || !baseUrl.equals(currentBaseUrl)) {
             currentBaseUrl = baseUrl;
 
-            // Logging interceptor for debugging
+            // Logging interceptor for debugging. Not BODY: that level reads the whole
+            // response into memory first, which defeats streamed batch responses
             HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
-            logging.setLevel(HttpLoggingInterceptor.Level.BODY);
+            logging.setLevel(HttpLoggingInterceptor.Level.BASIC);
 
             // HTTP client with timeouts
             OkHttpClient client = new OkHttpClient.Builder()
                     .addInterceptor(logging)
+                    .addInterceptor(new GzipEnvelopeInterceptor())
                     .connectTimeout(30, TimeUnit.SECONDS)
                     .readTimeout(30, TimeUnit.SECONDS)
                     .writeTimeout(30, TimeUnit.SECONDS)
@@ -73,7 +76,7 @@ public class ApiClient {
     }
 
     // Save API URL
-    public static void saveApiUrl(Context context, String url) {
+    public static synchronized void saveApiUrl(Context context, String url) {
         SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
         prefs.edit().putString(KEY_API_URL, url).apply();
         // Reset retrofit to force recreation with new URL
@@ -0,0 +1,102 @@
+package com.flashcardapp.network;
+
+import android.util.Base64;
+import android.util.Base64InputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import okio.Okio;
+
+/**
+ * Asks Apps Script for compressed responses (encoding=gzip) and unwraps them.
+ *
+ * Apps Script cannot set Content-Encoding, so large responses arrive as
+ * {"encoding":"gzip+base64","data":"..."}. This interceptor replaces such
+ * an envelope with the decompressed JSON, so Gson never sees it. The data
+ * is decoded as it arrives, so streaming readers get the first cards
+ * before the whole response has been downloaded. Other responses, e.g.
+ * from a script without compression support, pass through.
+ */
+class GzipEnvelopeInterceptor implements Interceptor {
+
+    // Written in this exact form by encodeResponse() in Code.gs
+    private static final String ENVELOPE_PREFIX = "{\"encoding\":\"gzip+base64\",\"data\":\"";
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        HttpUrl url = request.url().newBuilder()
+                .setQueryParameter("encoding", "gzip")
+                .build();
+        Response response = chain.proceed(request.newBuilder().url(url).build());
+
+        ResponseBody body = response.body();
+        if (!response.isSuccessful() || body == null
+                || !response.peekBody(ENVELOPE_PREFIX.length()).string().equals(ENVELOPE_PREFIX)) {
+            return response;
+        }
+
+        BufferedSource source = body.source();
+        source.skip(ENVELOPE_PREFIX.length());
+        InputStream json = new GZIPInputStream(new Base64InputStream(new DataStream(body), Base64.DEFAULT));
+        return response.newBuilder()
+                .body(ResponseBody.create(Okio.buffer(Okio.source(json)), JSON, -1L))
+                .build();
+    }
+
+    /**
+     * The base64 characters of the "data" string: ends at its closing quote
+     * and closes the network body when closed
+     */
+    private static class DataStream extends InputStream {
+
+        private final ResponseBody body;
+        private final BufferedSource source;
+        private boolean ended = false;
+
+        DataStream(ResponseBody body) {
+            this.body = body;
+            this.source = body.source();
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (ended || !source.request(1)) {
+                return -1;
+            }
+            // Only look at bytes already received, so decoding keeps up with the download
+            long available = Math.min(len, source.getBuffer().size());
+            long quote = source.getBuffer().indexOf((byte) '"', 0, available);
+            if (quote == 0) {
+                ended = true;
+                return -1;
+            }
+            int count = (int) (quote > 0 ? quote : available);
+            return source.read(b, off, count);
+        }
+
+        @Override
+        public void close() {
+            body.close();
+        }
+    }
+}
@@ -1,16 +1,25 @@
 package com.flashcardapp.network;
 
+import com.flashcardapp.models.Bootstrap;
+import com.flashcardapp.models.ChangeFeed;
 import com.flashcardapp.models.Flashcard;
-import com.flashcardapp.models.FlashcardBatch;
+import com.flashcardapp.models.MutationBatch;
+import com.flashcardapp.models.MutationBatchResult;
 import com.flashcardapp.models.SheetList;
+import com.flashcardapp.models.SheetSnapshot;
+import com.flashcardapp.models.SheetVersion;
+import com.flashcardapp.models.SnapshotChunk;
 import com.flashcardapp.models.StartingInfo;
 
 import com.google.gson.JsonObject;
 
+import okhttp3.ResponseBody;
 import retrofit2.Call;
+import retrofit2.http.Body;
 import retrofit2.http.GET;
 import retrofit2.http.POST;
 import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 
 public interface QuizApiService {
 
@@ -22,12 +31,26 @@ public interface QuizApiService {
             @Query("sheetName") String sheetName
     );
 
+    // fields: comma-separated projection, e.g. "frontSide,backSide,importance"
     @GET("exec")
-    Call<FlashcardBatch> getFlashcardBatch(
+    Call<Flashcard> getFlashcard(
+            @Query("action") String action,
+            @Query("cardNumber") int cardNumber,
+            @Query("sheetName") String sheetName,
+            @Query("fields") String fields
+    );
+
+    // format "compact" asks for the columnar response read by FlashcardBatchAdapter.
+    // The body is left unread so cards can be decoded as they arrive.
+    @Streaming
+    @GET("exec")
+    Call<ResponseBody> streamFlashcardBatch(
             @Query("action") String action,
             @Query("startCard") int startCard,
             @Query("count") int count,
-            @Query("sheetName") String sheetName
+            @Query("sheetName") String sheetName,
+            @Query("fields") String fields,
+            @Query("format") String format
     );
 
     @GET("exec")
@@ -39,6 +62,42 @@ public interface QuizApiService {
     @GET("exec")
     Call<SheetList> getAvailableSheets(@Query("action") String action);
 
+    // Sheet list, saved progress and the first cards in one call; sheetName may be null
+    @GET("exec")
+    Call<Bootstrap> bootstrap(
+            @Query("action") String action,
+            @Query("sheetName") String sheetName
+    );
+
+    @GET("exec")
+    Call<SheetVersion> getSheetVersion(
+            @Query("action") String action,
+            @Query("sheetName") String sheetName
+    );
+
+    // Cards changed since a version the client already has
+    @GET("exec")
+    Call<ChangeFeed> getChangesSince(
+            @Query("action") String action,
+            @Query("sheetName") String sheetName,
+            @Query("sinceVersion") int sinceVersion
+    );
+
+    // Whole-sheet snapshot: manifest first, then each chunk of that version
+    @GET("exec")
+    Call<SheetSnapshot> getSheetSnapshot(
+            @Query("action") String action,
+            @Query("sheetName") String sheetName
+    );
+
+    @GET("exec")
+    Call<SnapshotChunk> getSnapshotChunk(
+            @Query("action") String action,
+            @Query("sheetName") String sheetName,
+            @Query("version") int version,
+            @Query("chunk") int chunk
+    );
+
     @POST("exec")
     Call<JsonObject> saveImportance(
             @Query("action") String action,
@@ -62,4 +121,11 @@ public interface QuizApiService {
             @Query("side") String side,
             @Query("html") String htmlContent
     );
+
+    // Applies many queued changes in one execution
+    @POST("exec")
+    Call<MutationBatchResult> applyMutations(
+            @Query("action") String action,
+            @Body MutationBatch batch
+    );
 }
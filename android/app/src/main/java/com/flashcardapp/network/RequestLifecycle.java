@@ -0,0 +1,106 @@
+package com.flashcardapp.network;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import retrofit2.Call;
+
+/**
+ * Tags card requests with the navigation generation and sheet they were
+ * made for, and cancels them once they are superseded.
+ *
+ * Navigation-scoped calls (loading the card on screen) are cancelled by the
+ * next navigation. Sheet-scoped calls (prefetch batches) stay useful while
+ * the user moves around and are only cancelled when the sheet changes.
+ * Callbacks check isCurrent() / isCurrentSheet() before touching the UI or
+ * the cache. Use from the main thread.
+ */
+public class RequestLifecycle {
+
+    private static final String TAG = "RequestLifecycle";
+
+    public enum Scope {
+        NAVIGATION,
+        SHEET
+    }
+
+    private static class TrackedCall {
+        final Call<?> call;
+        final Scope scope;
+        final int generation;
+
+        TrackedCall(Call<?> call, Scope scope, int generation) {
+            this.call = call;
+            this.scope = scope;
+            this.generation = generation;
+        }
+    }
+
+    private final List<TrackedCall> trackedCalls = new ArrayList<>();
+    private int generation = 0;
+    private String sheetName;
+    private int cancelledCount = 0;
+
+    // Starts a new navigation and cancels calls made for earlier ones
+    public int advance() {
+        generation++;
+        cancel(false);
+        return generation;
+    }
+
+    // Switches to another sheet and cancels every tracked call
+    public int switchSheet(String newSheetName) {
+        Log.d(TAG, "Sheet changed: " + sheetName + " -> " + newSheetName);
+        sheetName = newSheetName;
+        generation++;
+        cancel(true);
+        return generation;
+    }
+
+    public void track(Call<?> call, Scope scope) {
+        trackedCalls.add(new TrackedCall(call, scope, generation));
+    }
+
+    public void untrack(Call<?> call) {
+        Iterator<TrackedCall> iterator = trackedCalls.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().call == call) {
+                iterator.remove();
+                return;
+            }
+        }
+    }
+
+    public boolean isCurrent(int requestGeneration) {
+        return requestGeneration == generation;
+    }
+
+    public boolean isCurrentSheet(String requestSheetName) {
+        return requestSheetName != null && requestSheetName.equals(sheetName);
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    public int getCancelledCount() {
+        return cancelledCount;
+    }
+
+    private void cancel(boolean includeSheetScope) {
+        Iterator<TrackedCall> iterator = trackedCalls.iterator();
+        while (iterator.hasNext()) {
+            TrackedCall tracked = iterator.next();
+            boolean superseded = tracked.generation < generation
+                    && (includeSheetScope || tracked.scope == Scope.NAVIGATION);
+            if (superseded) {
+                tracked.call.cancel();
+                iterator.remove();
+                cancelledCount++;
+            }
+        }
+    }
+}
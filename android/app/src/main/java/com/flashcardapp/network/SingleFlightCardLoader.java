@@ -0,0 +1,291 @@
+package com.flashcardapp.network;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.flashcardapp.models.Flashcard;
+import com.flashcardapp.models.FlashcardBatch;
+import com.flashcardapp.models.FlashcardBatchReader;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Deduplicates card requests: a load for a card that is already being
+ * fetched (alone or as part of a batch) waits for the pending call
+ * instead of starting another Apps Script execution.
+ *
+ * Batches may carry a light field projection; cards they deliver to
+ * attached loads can then be partial (see Flashcard.isPartial()).
+ *
+ * Every call is registered with the RequestLifecycle so superseded loads
+ * can be cancelled. Retrofit delivers callbacks on the main thread and
+ * streamed batches post theirs there too, so this class is only used from
+ * the main thread.
+ */
+public class SingleFlightCardLoader {
+
+    private static final String TAG = "SingleFlightCardLoader";
+    private static final String BATCH_FORMAT = "compact";
+
+    // Decodes streamed batch responses off the main thread
+    private static final ExecutorService STREAM_EXECUTOR = Executors.newCachedThreadPool();
+    private static final FlashcardBatchReader BATCH_READER =
+            new FlashcardBatchReader(new Gson().getAdapter(Flashcard.class));
+
+    public interface CardListener {
+        void onCard(Flashcard card);
+        void onError(Throwable t);
+    }
+
+    public interface BatchListener {
+        // Each card as soon as it has been decoded, before onBatch()
+        void onCard(Flashcard card);
+        void onBatch(List<Flashcard> cards);
+        void onError(Throwable t);
+    }
+
+    // One network call and the card loads attached to it
+    private static class PendingRequest {
+        final Map<Integer, List<CardListener>> waiters = new HashMap<>();
+        Call<?> call;
+
+        boolean isActive() {
+            return call != null && !call.isCanceled();
+        }
+    }
+
+    private final RequestLifecycle lifecycle;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<String, PendingRequest> pendingByCard = new HashMap<>();
+    private int startedCallCount = 0;
+    private int savedCallCount = 0;
+
+    public SingleFlightCardLoader(RequestLifecycle lifecycle) {
+        this.lifecycle = lifecycle;
+    }
+
+    // Loads one card, attaching to an in-flight request for it if there is one
+    public void loadCard(QuizApiService api, String sheetName, int cardNumber, CardListener listener) {
+        PendingRequest pending = pendingByCard.get(key(sheetName, cardNumber));
+        if (pending != null && pending.isActive()) {
+            savedCallCount++;
+            Log.d(TAG, "Card " + cardNumber + " already in flight, attaching (saved " + savedCallCount + " calls)");
+            addWaiter(pending, cardNumber, listener);
+            return;
+        }
+
+        PendingRequest request = new PendingRequest();
+        addWaiter(request, cardNumber, listener);
+        Call<Flashcard> cardCall = api.getFlashcard("getFlashcard", cardNumber, sheetName);
+        request.call = cardCall;
+        register(request, sheetName, cardNumber, cardNumber);
+        lifecycle.track(cardCall, RequestLifecycle.Scope.NAVIGATION);
+        startedCallCount++;
+
+        cardCall.enqueue(new Callback<Flashcard>() {
+            @Override
+            public void onResponse(Call<Flashcard> call, Response<Flashcard> response) {
+                lifecycle.untrack(call);
+                unregister(request, sheetName, cardNumber, cardNumber);
+                if (response.isSuccessful() && response.body() != null) {
+                    deliver(request, Collections.singletonList(response.body()));
+                } else {
+                    fail(request, new IllegalStateException("Failed to load flashcard: " + response.code()));
+                }
+            }
+
+            @Override
+            public void onFailure(Call<Flashcard> call, Throwable t) {
+                lifecycle.untrack(call);
+                unregister(request, sheetName, cardNumber, cardNumber);
+                fail(request, t);
+            }
+        });
+    }
+
+    // Fetches only the given fields of one card, e.g. the heavy fields of a partial card
+    public void loadFields(QuizApiService api, String sheetName, int cardNumber, String fields, CardListener listener) {
+        Call<Flashcard> fieldsCall = api.getFlashcard("getFlashcard", cardNumber, sheetName, fields);
+        lifecycle.track(fieldsCall, RequestLifecycle.Scope.NAVIGATION);
+        startedCallCount++;
+
+        fieldsCall.enqueue(new Callback<Flashcard>() {
+            @Override
+            public void onResponse(Call<Flashcard> call, Response<Flashcard> response) {
+                lifecycle.untrack(call);
+                if (response.isSuccessful() && response.body() != null) {
+                    listener.onCard(response.body());
+                } else {
+                    listener.onError(new IllegalStateException("Failed to load card fields: " + response.code()));
+                }
+            }
+
+            @Override
+            public void onFailure(Call<Flashcard> call, Throwable t) {
+                lifecycle.untrack(call);
+                listener.onError(t);
+            }
+        });
+    }
+
+    /**
+     * Loads a range of cards; single-card loads inside the range attach to it.
+     * fields: comma-separated projection, or null for full cards.
+     * The response is decoded on a background thread; each card is handed to
+     * waiting loads and to listener.onCard() as soon as it has been parsed.
+     */
+    public void loadBatch(QuizApiService api, String sheetName, int firstCard, int count, String fields,
+                          BatchListener listener) {
+        int lastCard = firstCard + count - 1;
+        PendingRequest request = new PendingRequest();
+        // Servers without the compact format ignore it and send card objects
+        Call<ResponseBody> batchCall = api.streamFlashcardBatch("getFlashcardBatch", firstCard, count, sheetName,
+                fields, BATCH_FORMAT);
+        request.call = batchCall;
+        register(request, sheetName, firstCard, lastCard);
+        lifecycle.track(batchCall, RequestLifecycle.Scope.SHEET);
+        startedCallCount++;
+
+        STREAM_EXECUTOR.execute(() -> {
+            FlashcardBatch batch = null;
+            Throwable error = null;
+            long startedAt = SystemClock.elapsedRealtime();
+            long[] firstCardAt = {0};
+            try {
+                Response<ResponseBody> response = batchCall.execute();
+                if (response.isSuccessful() && response.body() != null) {
+                    try (JsonReader reader = new JsonReader(response.body().charStream())) {
+                        batch = BATCH_READER.read(reader, card -> {
+                            if (firstCardAt[0] == 0) {
+                                firstCardAt[0] = SystemClock.elapsedRealtime();
+                            }
+                            mainHandler.post(() -> {
+                                if (!batchCall.isCanceled()) {
+                                    listener.onCard(card);
+                                    deliverCard(request, card);
+                                }
+                            });
+                        });
+                    }
+                    // A first card well before the end shows the response is really streamed
+                    Log.d(TAG, "Batch " + firstCard + "-" + lastCard + ": first card after "
+                            + (firstCardAt[0] == 0 ? "-" : String.valueOf(firstCardAt[0] - startedAt))
+                            + " ms, complete after " + (SystemClock.elapsedRealtime() - startedAt) + " ms");
+                }
+                if (batch == null || batch.getCards() == null) {
+                    error = new IllegalStateException("Failed to load flashcard batch: " + response.code());
+                }
+            } catch (IOException | RuntimeException e) {
+                error = e;
+            }
+
+            // Posted after every card, so listeners see them first
+            FlashcardBatch result = batch;
+            Throwable failure = error;
+            mainHandler.post(() -> {
+                lifecycle.untrack(batchCall);
+                unregister(request, sheetName, firstCard, lastCard);
+                if (failure == null) {
+                    for (Flashcard card : result.getCards()) {
+                        card.setVersion(result.getVersion());
+                    }
+                    listener.onBatch(result.getCards());
+                    // Cards missing from the response (e.g. past the end of the deck)
+                    fail(request, new IllegalStateException("Card not found in response"));
+                } else {
+                    listener.onError(failure);
+                    fail(request, failure);
+                }
+            });
+        });
+    }
+
+    public boolean isInFlight(String sheetName, int cardNumber) {
+        PendingRequest pending = pendingByCard.get(key(sheetName, cardNumber));
+        return pending != null && pending.isActive();
+    }
+
+    public int getStartedCallCount() {
+        return startedCallCount;
+    }
+
+    // Number of duplicate calls avoided by attaching to pending requests
+    public int getSavedCallCount() {
+        return savedCallCount;
+    }
+
+    private static String key(String sheetName, int cardNumber) {
+        return sheetName + '\n' + cardNumber;
+    }
+
+    private static void addWaiter(PendingRequest request, int cardNumber, CardListener listener) {
+        List<CardListener> listeners = request.waiters.get(cardNumber);
+        if (listeners == null) {
+            listeners = new ArrayList<>();
+            request.waiters.put(cardNumber, listeners);
+        }
+        listeners.add(listener);
+    }
+
+    private void register(PendingRequest request, String sheetName, int firstCard, int lastCard) {
+        for (int card = firstCard; card <= lastCard; card++) {
+            // Keep an active owner so its waiters are not orphaned
+            String key = key(sheetName, card);
+            PendingRequest owner = pendingByCard.get(key);
+            if (owner == null || !owner.isActive()) {
+                pendingByCard.put(key, request);
+            }
+        }
+    }
+
+    private void unregister(PendingRequest request, String sheetName, int firstCard, int lastCard) {
+        for (int card = firstCard; card <= lastCard; card++) {
+            String key = key(sheetName, card);
+            if (pendingByCard.get(key) == request) {
+                pendingByCard.remove(key);
+            }
+        }
+    }
+
+    private static void deliver(PendingRequest request, List<Flashcard> cards) {
+        for (Flashcard card : cards) {
+            deliverCard(request, card);
+        }
+        // Cards missing from the response (e.g. past the end of the deck)
+        fail(request, new IllegalStateException("Card not found in response"));
+    }
+
+    private static void deliverCard(PendingRequest request, Flashcard card) {
+        List<CardListener> listeners = request.waiters.remove(card.getCurrentNum());
+        if (listeners != null) {
+            for (CardListener listener : listeners) {
+                listener.onCard(card);
+            }
+        }
+    }
+
+    private static void fail(PendingRequest request, Throwable t) {
+        for (List<CardListener> listeners : request.waiters.values()) {
+            for (CardListener listener : listeners) {
+                listener.onError(t);
+            }
+        }
+        request.waiters.clear();
+    }
+}
@@ -0,0 +1,93 @@
+package com.flashcardapp.prefetch;
+
+import java.util.Locale;
+
+/**
+ * Sizes the prefetch window from swipe cadence, direction of travel and
+ * measured getFlashcardBatch latency.
+ *
+ * The lead in the direction of travel covers every card the user is
+ * expected to pass during one batch round trip (times a safety factor),
+ * so the next card is normally cached before it is needed.
+ */
+public class AdaptivePrefetchPolicy implements PrefetchPolicy {
+
+    private static final int MIN_LEAD = 10;  // Never prefetch less than the old fixed window
+    private static final int MIN_TRAIL = 2;
+    private static final int MAX_LEAD = 50;  // Larger batches make each Apps Script call slower
+    private static final double SAFETY_FACTOR = 2.0;
+    private static final double SMOOTHING = 0.3; // Weight of the newest sample in moving averages
+    private static final double DIRECTION_THRESHOLD = 0.3;
+
+    private static final long INITIAL_INTERVAL_MS = 5000;
+    private static final long INITIAL_RTT_MS = 2000;
+    private static final long MIN_INTERVAL_MS = 100;
+    private static final long IDLE_INTERVAL_MS = 30000; // Longer pauses are reading time, not cadence
+
+    private double intervalMs = INITIAL_INTERVAL_MS;
+    private double rttMs = INITIAL_RTT_MS;
+    private double direction = 1.0; // -1 = backward, +1 = forward
+
+    private int lastCard = -1;
+    private long lastNavigateMs = -1;
+
+    @Override
+    public void onNavigate(int cardNumber, long timeMs) {
+        if (lastCard > 0) {
+            int delta = cardNumber - lastCard;
+            long elapsed = timeMs - lastNavigateMs;
+
+            if (Math.abs(delta) == 1) {
+                direction = smooth(direction, delta);
+                if (elapsed < IDLE_INTERVAL_MS) {
+                    intervalMs = smooth(intervalMs, Math.max(MIN_INTERVAL_MS, elapsed));
+                } else {
+                    intervalMs = INITIAL_INTERVAL_MS;
+                }
+            } else if (delta != 0) {
+                // Jump: keep the cadence, but assume travel continues in the jump direction
+                direction = Math.signum(delta);
+            }
+        }
+        lastCard = cardNumber;
+        lastNavigateMs = timeMs;
+    }
+
+    @Override
+    public void onBatchLoaded(int cardCount, long elapsedMs) {
+        if (elapsedMs > 0) {
+            rttMs = smooth(rttMs, elapsedMs);
+        }
+    }
+
+    @Override
+    public PrefetchWindow getWindow(int currentCard, int totalCards) {
+        int lead = getLead();
+        if (direction >= DIRECTION_THRESHOLD) {
+            return PrefetchWindow.around(currentCard, MIN_TRAIL, lead, totalCards);
+        }
+        if (direction <= -DIRECTION_THRESHOLD) {
+            return PrefetchWindow.around(currentCard, lead, MIN_TRAIL, totalCards);
+        }
+        // No clear direction: split the lead between both sides
+        int half = Math.max(MIN_LEAD, lead / 2);
+        return PrefetchWindow.around(currentCard, half, half, totalCards);
+    }
+
+    // Cards passed during one round trip, with headroom
+    int getLead() {
+        double cardsPerRoundTrip = rttMs / intervalMs;
+        int lead = (int) Math.ceil(cardsPerRoundTrip * SAFETY_FACTOR) + MIN_TRAIL;
+        return Math.max(MIN_LEAD, Math.min(MAX_LEAD, lead));
+    }
+
+    private static double smooth(double average, double sample) {
+        return average + SMOOTHING * (sample - average);
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptivePrefetchPolicy[interval=" + Math.round(intervalMs) + "ms, rtt=" + Math.round(rttMs)
+                + "ms, direction=" + String.format(Locale.US, "%.2f", direction) + ", lead=" + getLead() + "]";
+    }
+}
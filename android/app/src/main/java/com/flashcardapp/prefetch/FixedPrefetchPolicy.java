@@ -0,0 +1,30 @@
+package com.flashcardapp.prefetch;
+
+/**
+ * Constant window: a fixed number of cards ahead of and behind the current one
+ */
+public class FixedPrefetchPolicy implements PrefetchPolicy {
+
+    private final int ahead;
+    private final int behind;
+
+    public FixedPrefetchPolicy(int ahead, int behind) {
+        this.ahead = ahead;
+        this.behind = behind;
+    }
+
+    @Override
+    public void onNavigate(int cardNumber, long timeMs) {
+        // Window does not depend on navigation
+    }
+
+    @Override
+    public void onBatchLoaded(int cardCount, long elapsedMs) {
+        // Window does not depend on latency
+    }
+
+    @Override
+    public PrefetchWindow getWindow(int currentCard, int totalCards) {
+        return PrefetchWindow.around(currentCard, behind, ahead, totalCards);
+    }
+}
@@ -0,0 +1,19 @@
+package com.flashcardapp.prefetch;
+
+/**
+ * Decides which cards around the current position should be kept cached.
+ *
+ * Implementations are plain Java and receive timestamps from the caller,
+ * so they can be exercised without an Android device.
+ */
+public interface PrefetchPolicy {
+
+    // Called whenever the user moves to another card
+    void onNavigate(int cardNumber, long timeMs);
+
+    // Called when a getFlashcardBatch round trip completes
+    void onBatchLoaded(int cardCount, long elapsedMs);
+
+    // Window of cards that should be cached for the current position
+    PrefetchWindow getWindow(int currentCard, int totalCards);
+}
@@ -0,0 +1,158 @@
+package com.flashcardapp.prefetch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plans getFlashcardBatch requests for the gaps in a prefetch window.
+ *
+ * Several non-overlapping ranges may be in flight at once, up to a limit.
+ * Card numbers that are already requested are never planned again, and
+ * neighbouring gaps are merged into a single range. The forward and
+ * backward regions around the current card are planned separately so
+ * both fill in parallel after a jump. Not thread-safe - use from the
+ * main thread.
+ */
+public class PrefetchScheduler {
+
+    // Gaps separated by at most this many cached cards are fetched as one range
+    private static final int MERGE_DISTANCE = 2;
+
+    public interface CardPresence {
+        boolean isCached(int cardNumber);
+    }
+
+    /**
+     * Inclusive range of card numbers requested in one batch call
+     */
+    public static final class Range {
+        private final int firstCard;
+        private final int lastCard;
+
+        Range(int firstCard, int lastCard) {
+            this.firstCard = firstCard;
+            this.lastCard = lastCard;
+        }
+
+        public int getFirstCard() { return firstCard; }
+        public int getLastCard() { return lastCard; }
+
+        public int getCount() {
+            return lastCard - firstCard + 1;
+        }
+
+        public boolean contains(int cardNumber) {
+            return cardNumber >= firstCard && cardNumber <= lastCard;
+        }
+
+        @Override
+        public String toString() {
+            return firstCard + ".." + lastCard;
+        }
+    }
+
+    private final int maxInFlight;
+    private final int maxBatchSize;
+    private final List<Range> inFlight = new ArrayList<>();
+
+    public PrefetchScheduler(int maxInFlight, int maxBatchSize) {
+        this.maxInFlight = maxInFlight;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Returns the ranges the caller should request now and marks them as
+     * in flight. Each returned range must later be passed to complete().
+     */
+    public List<Range> plan(int currentCard, PrefetchWindow window, CardPresence presence) {
+        List<Range> forward = new ArrayList<>();
+        List<Range> backward = new ArrayList<>();
+        if (!window.isEmpty()) {
+            collectGaps(Math.max(currentCard, window.getFirstCard()), window.getLastCard(), 1, presence, forward);
+            collectGaps(Math.min(currentCard - 1, window.getLastCard()), window.getFirstCard(), -1, presence, backward);
+        }
+
+        // Alternate between directions, nearest gaps first
+        List<Range> planned = new ArrayList<>();
+        int f = 0;
+        int b = 0;
+        while (inFlight.size() < maxInFlight && (f < forward.size() || b < backward.size())) {
+            if (f < forward.size()) {
+                planned.add(forward.get(f++));
+                inFlight.add(planned.get(planned.size() - 1));
+            }
+            if (inFlight.size() < maxInFlight && b < backward.size()) {
+                planned.add(backward.get(b++));
+                inFlight.add(planned.get(planned.size() - 1));
+            }
+        }
+        return planned;
+    }
+
+    // Called when a planned range finished, successfully or not
+    public void complete(Range range) {
+        inFlight.remove(range);
+    }
+
+    public boolean isRequested(int cardNumber) {
+        for (Range range : inFlight) {
+            if (range.contains(cardNumber)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    // Forget all in-flight ranges, e.g. after a sheet change
+    public void reset() {
+        inFlight.clear();
+    }
+
+    // Walks from 'from' towards 'to' and collects missing, unrequested runs in walk order
+    private void collectGaps(int from, int to, int step, CardPresence presence, List<Range> out) {
+        if ((to - from) * step < 0) {
+            return;
+        }
+
+        int gapStart = -1;  // First missing card of the current run, in walk order
+        int gapEnd = -1;    // Last missing card of the current run
+        int cachedRun = 0;  // Cached cards seen since gapEnd
+
+        for (int card = from; card != to + step; card += step) {
+            if (isRequested(card)) {
+                // Never bridge over in-flight cards
+                addRange(gapStart, gapEnd, out);
+                gapStart = -1;
+                cachedRun = 0;
+            } else if (presence.isCached(card)) {
+                if (gapStart != -1 && ++cachedRun > MERGE_DISTANCE) {
+                    addRange(gapStart, gapEnd, out);
+                    gapStart = -1;
+                    cachedRun = 0;
+                }
+            } else {
+                if (gapStart == -1) {
+                    gapStart = card;
+                }
+                gapEnd = card;
+                cachedRun = 0;
+                if (Math.abs(gapEnd - gapStart) + 1 >= maxBatchSize) {
+                    addRange(gapStart, gapEnd, out);
+                    gapStart = -1;
+                }
+            }
+        }
+        addRange(gapStart, gapEnd, out);
+    }
+
+    private static void addRange(int gapStart, int gapEnd, List<Range> out) {
+        if (gapStart == -1) {
+            return;
+        }
+        out.add(new Range(Math.min(gapStart, gapEnd), Math.max(gapStart, gapEnd)));
+    }
+}
@@ -0,0 +1,38 @@
+package com.flashcardapp.prefetch;
+
+/**
+ * Inclusive range of card numbers to keep prefetched
+ */
+public final class PrefetchWindow {
+
+    private final int firstCard;
+    private final int lastCard;
+
+    public PrefetchWindow(int firstCard, int lastCard) {
+        this.firstCard = firstCard;
+        this.lastCard = lastCard;
+    }
+
+    // Builds the window around currentCard, clamped to the deck
+    public static PrefetchWindow around(int currentCard, int behind, int ahead, int totalCards) {
+        int first = Math.max(1, currentCard - behind);
+        int last = Math.min(totalCards, currentCard + ahead);
+        return new PrefetchWindow(first, last);
+    }
+
+    public int getFirstCard() { return firstCard; }
+    public int getLastCard() { return lastCard; }
+
+    public boolean isEmpty() {
+        return lastCard < firstCard;
+    }
+
+    public boolean contains(int cardNumber) {
+        return cardNumber >= firstCard && cardNumber <= lastCard;
+    }
+
+    @Override
+    public String toString() {
+        return firstCard + ".." + lastCard;
+    }
+}
@@ -0,0 +1,414 @@
+package com.flashcardapp.render;
+
+import android.graphics.Typeface;
+import android.os.Build;
+import android.text.Spannable;
+import android.text.SpannableStringBuilder;
+import android.text.Spanned;
+import android.text.style.ForegroundColorSpan;
+import android.text.style.StrikethroughSpan;
+import android.text.style.StyleSpan;
+import android.text.style.UnderlineSpan;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-pass parser for the card markup Code.gs and the editor produce:
+ * <b>, <strong>, <i>, <em>, <u>, <s>, <strike>, <del>, <font color="#rrggbb">,
+ * <br>, line breaks, the underline <span style> Google Sheets sends, and
+ * the common character entities.
+ *
+ * Spans are set on a SpannableStringBuilder while the HTML is scanned, with
+ * the same spans, flags and whitespace handling as Html.fromHtml, so the
+ * result renders identically. Anything outside this subset makes parse()
+ * return null, and the caller falls back to Html.fromHtml.
+ */
+final class CardHtmlParser {
+
+    private static final String SPAN_END = "</span>";
+
+    // An element whose span is set when it is closed
+    private static final class OpenTag {
+        final String name;
+        final int start;
+        final Object span; // null for elements without a span on this API level
+
+        OpenTag(String name, int start, Object span) {
+            this.name = name;
+            this.start = start;
+            this.span = span;
+        }
+    }
+
+    private final String html;
+    private final int length;
+    private final SpannableStringBuilder out = new SpannableStringBuilder();
+    private final List<OpenTag> open = new ArrayList<>();
+    private int pos = 0;
+
+    private CardHtmlParser(String html) {
+        this.html = html;
+        this.length = html.length();
+    }
+
+    // Returns the rendered text, or null if the HTML uses anything unsupported
+    static Spanned parse(String html) {
+        return new CardHtmlParser(html).run();
+    }
+
+    private Spanned run() {
+        while (pos < length) {
+            char c = html.charAt(pos);
+            if (c == '<') {
+                if (!readTag()) {
+                    return null;
+                }
+            } else if (c == '&') {
+                if (!readEntity()) {
+                    return null;
+                }
+            } else if (c == '\n') {
+                out.append('\n'); // Line breaks in cells render like <br>, not as spaces
+                pos++;
+            } else {
+                appendText(c);
+                pos++;
+            }
+        }
+        // Unclosed elements extend to the end, as in Html.fromHtml
+        for (int i = open.size() - 1; i >= 0; i--) {
+            setSpan(open.get(i));
+        }
+        return out;
+    }
+
+    // Collapses whitespace like Html.fromHtml: one space, none at the start of a line
+    private void appendText(char c) {
+        if (c == ' ' || c == '\n') {
+            int outLength = out.length();
+            char previous = outLength == 0 ? '\n' : out.charAt(outLength - 1);
+            if (previous != ' ' && previous != '\n') {
+                out.append(' ');
+            }
+            return;
+        }
+        out.append(c);
+    }
+
+    // ==================== Tags ====================
+
+    private boolean readTag() {
+        int nameStart = pos + 1;
+        boolean closing = nameStart < length && html.charAt(nameStart) == '/';
+        if (closing) {
+            nameStart++;
+        }
+        if (nameStart >= length || !isLetter(html.charAt(nameStart))) {
+            if (nameStart < length && !closing && (html.charAt(nameStart) == '!' || html.charAt(nameStart) == '?')) {
+                return false; // Comment or declaration
+            }
+            appendText('<'); // A lone '<' is text
+            pos++;
+            return true;
+        }
+        int tagEnd = html.indexOf('>', nameStart);
+        if (tagEnd == -1) {
+            return false;
+        }
+        int nameEnd = nameStart;
+        while (nameEnd < tagEnd && isLetter(html.charAt(nameEnd))) {
+            nameEnd++;
+        }
+        String name = tagName(nameStart, nameEnd);
+        if (name == null) {
+            return false;
+        }
+
+        if (closing) {
+            closeTag(name);
+            pos = tagEnd + 1;
+            return true;
+        }
+        switch (name) {
+            case "br":
+                out.append('\n');
+                break;
+            case "font":
+                if (!openFont(nameEnd, tagEnd)) {
+                    return false;
+                }
+                break;
+            case "span":
+                // Only the form the underline regex used to rewrite
+                return openUnderlineSpan();
+            default:
+                if (!onlyWhitespace(nameEnd, tagEnd)) {
+                    return false; // Attributes on a tag that has none here
+                }
+                open.add(new OpenTag(name, out.length(), newSpan(name)));
+                break;
+        }
+        pos = tagEnd + 1;
+        return true;
+    }
+
+    // Canonical name of a supported tag, or null
+    private String tagName(int start, int end) {
+        int nameLength = end - start;
+        if (nameLength == 1) {
+            switch (Character.toLowerCase(html.charAt(start))) {
+                case 'b': return "b";
+                case 'i': return "i";
+                case 'u': return "u";
+                case 's': return "s";
+                default: return null;
+            }
+        }
+        String[] names = {"br", "em", "del", "font", "span", "strong", "strike"};
+        for (String name : names) {
+            if (name.length() == nameLength && html.regionMatches(true, start, name, 0, nameLength)) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    private static Object newSpan(String name) {
+        switch (name) {
+            case "b":
+            case "strong":
+                return new StyleSpan(Typeface.BOLD);
+            case "i":
+            case "em":
+                return new StyleSpan(Typeface.ITALIC);
+            case "u":
+                return new UnderlineSpan();
+            default:
+                // s, strike and del: Html.fromHtml ignores them before Android N
+                return Build.VERSION.SDK_INT >= Build.VERSION_CODES.N ? new StrikethroughSpan() : null;
+        }
+    }
+
+    // Closes the innermost open element of that kind; stray end tags are ignored
+    private void closeTag(String name) {
+        for (int i = open.size() - 1; i >= 0; i--) {
+            if (sameKind(open.get(i).name, name)) {
+                setSpan(open.remove(i));
+                return;
+            }
+        }
+    }
+
+    private static boolean sameKind(String a, String b) {
+        return a.equals(b) || (isStrike(a) && isStrike(b));
+    }
+
+    private static boolean isStrike(String name) {
+        return name.equals("s") || name.equals("strike") || name.equals("del");
+    }
+
+    private void setSpan(OpenTag tag) {
+        int end = out.length();
+        if (tag.span != null && tag.start != end) {
+            out.setSpan(tag.span, tag.start, end, Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
+        }
+    }
+
+    // <font color="#rrggbb">, with the color attribute only
+    private boolean openFont(int from, int tagEnd) {
+        int i = skipWhitespace(from, tagEnd);
+        if (i == tagEnd) {
+            open.add(new OpenTag("font", out.length(), null));
+            return true;
+        }
+        if (!html.regionMatches(true, i, "color", 0, 5)) {
+            return false;
+        }
+        i = skipWhitespace(i + 5, tagEnd);
+        if (i == tagEnd || html.charAt(i) != '=') {
+            return false;
+        }
+        i = skipWhitespace(i + 1, tagEnd);
+        char quote = i < tagEnd ? html.charAt(i) : 0;
+        if (quote == '"' || quote == '\'') {
+            i++;
+        } else {
+            quote = 0;
+        }
+        // #rrggbb
+        if (i + 7 > tagEnd || html.charAt(i) != '#') {
+            return false;
+        }
+        int color = 0;
+        for (int k = i + 1; k < i + 7; k++) {
+            int digit = Character.digit(html.charAt(k), 16);
+            if (digit < 0) {
+                return false;
+            }
+            color = (color << 4) | digit;
+        }
+        i += 7;
+        if (quote != 0) {
+            if (i >= tagEnd || html.charAt(i) != quote) {
+                return false;
+            }
+            i++;
+        }
+        if (!onlyWhitespace(i, tagEnd)) {
+            return false;
+        }
+        open.add(new OpenTag("font", out.length(), new ForegroundColorSpan(color | 0xFF000000)));
+        return true;
+    }
+
+    /**
+     * <span style="...text-decoration: underline...">text</span> with no tags
+     * inside: underlined, other styles dropped (matching the old rewrite to
+     * <u>). Any other span is left to Html.fromHtml.
+     */
+    private boolean openUnderlineSpan() {
+        String prefix = "<span style=\"";
+        if (!html.startsWith(prefix, pos)) {
+            return false;
+        }
+        int styleStart = pos + prefix.length();
+        int styleEnd = html.indexOf('"', styleStart);
+        if (styleEnd == -1 || styleEnd + 1 >= length || html.charAt(styleEnd + 1) != '>') {
+            return false;
+        }
+        int contentStart = styleEnd + 2;
+        int contentEnd = html.indexOf('<', contentStart);
+        if (contentEnd == -1 || !html.startsWith(SPAN_END, contentEnd)
+                || !hasUnderline(styleStart, styleEnd)) {
+            return false;
+        }
+        // Line breaks became <br> before the rewrite, so it skipped such spans
+        int lineBreak = html.indexOf('\n', styleStart);
+        if (lineBreak != -1 && lineBreak < contentEnd) {
+            return false;
+        }
+
+        int start = out.length();
+        pos = contentStart;
+        while (pos < contentEnd) {
+            char c = html.charAt(pos);
+            if (c == '&') {
+                if (!readEntity()) {
+                    return false;
+                }
+            } else {
+                appendText(c);
+                pos++;
+            }
+        }
+        setSpan(new OpenTag("u", start, new UnderlineSpan()));
+        pos = contentEnd + SPAN_END.length();
+        return true;
+    }
+
+    // "text-decoration:" or "text-decoration-line:", optional whitespace, then "underline"
+    private boolean hasUnderline(int from, int to) {
+        String[] properties = {"text-decoration:", "text-decoration-line:"};
+        for (String property : properties) {
+            for (int i = html.indexOf(property, from); i != -1 && i < to; i = html.indexOf(property, i + 1)) {
+                int value = i + property.length();
+                while (value < to && Character.isWhitespace(html.charAt(value))) {
+                    value++;
+                }
+                if (value + 9 <= to && html.startsWith("underline", value)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // ==================== Entities ====================
+
+    // Decodes &name; and &#n; / &#xn; references; a lone '&' is text
+    private boolean readEntity() {
+        int start = pos + 1;
+        int end = start;
+        while (end < length && end - start <= 8 && (isLetter(html.charAt(end))
+                || Character.isDigit(html.charAt(end)) || html.charAt(end) == '#')) {
+            end++;
+        }
+        if (end == start) {
+            appendText('&');
+            pos++;
+            return true;
+        }
+        if (end >= length || html.charAt(end) != ';') {
+            return false; // Html.fromHtml may still decode it
+        }
+
+        int c;
+        if (html.charAt(start) == '#') {
+            c = parseCharacterReference(start + 1, end);
+        } else {
+            c = namedEntity(start, end);
+        }
+        if (c < 0) {
+            return false;
+        }
+        appendText((char) c);
+        pos = end + 1;
+        return true;
+    }
+
+    private int parseCharacterReference(int from, int to) {
+        int radix = 10;
+        if (from < to && (html.charAt(from) == 'x' || html.charAt(from) == 'X')) {
+            radix = 16;
+            from++;
+        }
+        if (from == to) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = Character.digit(html.charAt(i), radix);
+            if (digit < 0) {
+                return -1;
+            }
+            value = value * radix + digit;
+        }
+        // Characters outside the BMP would need a surrogate pair
+        return value > 0 && value <= 0xFFFF ? value : -1;
+    }
+
+    private int namedEntity(int from, int to) {
+        int nameLength = to - from;
+        String[] names = {"amp", "lt", "gt", "quot", "apos", "nbsp"};
+        char[] chars = {'&', '<', '>', '"', '\'', '\u00A0'};
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].length() == nameLength && html.regionMatches(from, names[i], 0, nameLength)) {
+                return chars[i];
+            }
+        }
+        return -1;
+    }
+
+    // ==================== Helpers ====================
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private int skipWhitespace(int from, int to) {
+        while (from < to && Character.isWhitespace(html.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    // True if only whitespace and an optional self-closing '/' remain before the '>'
+    private boolean onlyWhitespace(int from, int to) {
+        int i = skipWhitespace(from, to);
+        if (i < to && html.charAt(i) == '/') {
+            i = skipWhitespace(i + 1, to);
+        }
+        return i == to;
+    }
+}
@@ -0,0 +1,225 @@
+package com.flashcardapp.render;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Html;
+import android.text.Spanned;
+import android.util.Log;
+import android.widget.TextView;
+
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
+
+import com.flashcardapp.models.Flashcard;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Turns card HTML into Spanned text off the main thread, with
+ * CardHtmlParser for the usual card markup and Html.fromHtml for the rest.
+ *
+ * Prefetched cards are handed to prerender() as they arrive; get() then
+ * returns the finished result, so showing a card only assigns text.
+ * Results are kept per card object and dropped with it. A card edited
+ * after rendering is rendered again.
+ *
+ * For the cards around the current one, layOut() also measures the text
+ * in the background as PrecomputedText, with the text params of the views
+ * it will be shown in; setText() then hands it to the view so showing or
+ * flipping the card skips that work on the main thread.
+ */
+public class CardRenderer {
+
+    private static final String TAG = "CardRenderer";
+
+    // Google Sheets sends underline as a CSS style, which Html.fromHtml ignores
+    private static final Pattern UNDERLINE_SPAN = Pattern.compile(
+            "<span style=\"([^\"]*)text-decoration:\\s*underline([^\"]*)\">([^<]*)</span>");
+    private static final Pattern UNDERLINE_LINE_SPAN = Pattern.compile(
+            "<span style=\"([^\"]*)text-decoration-line:\\s*underline([^\"]*)\">([^<]*)</span>");
+
+    // Single thread keeps rendering from competing with itself for CPU
+    private static final ExecutorService RENDER_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    // PrecomputedText holds measurement data, so only the cards around the current one keep it
+    private static final int MAX_LAID_OUT_CARDS = 6;
+
+    // HTML the single-pass parser left to Html.fromHtml
+    private static final AtomicInteger fallbackCount = new AtomicInteger();
+
+    // The views of a card
+    public enum Face {
+        FRONT,
+        BACK,
+        FRONT_PRONUNCIATION,
+        BACK_PRONUNCIATION,
+        FRONT_EXTRA,
+        BACK_EXTRA
+    }
+
+    private final Map<Flashcard, RenderedCard> rendered = Collections.synchronizedMap(new WeakHashMap<>());
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Precomputed text per face, for the most recently laid out renderings. Guarded by itself.
+    private final Map<RenderedCard, PrecomputedTextCompat[]> layouts =
+            new LinkedHashMap<RenderedCard, PrecomputedTextCompat[]>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<RenderedCard, PrecomputedTextCompat[]> eldest) {
+                    return size() > MAX_LAID_OUT_CARDS;
+                }
+            };
+
+    // Text params of the view each face is shown in. Main thread only.
+    private final PrecomputedTextCompat.Params[] textParams = new PrecomputedTextCompat.Params[Face.values().length];
+
+    private int renderedInBackground = 0;
+    private int renderedOnDemand = 0;
+    private int precomputedShown = 0;
+    private int measuredOnScreen = 0;
+
+    // Takes the text params of the view a face is shown in. Main thread only.
+    public void setTextParams(Face face, TextView view) {
+        textParams[face.ordinal()] = TextViewCompat.getTextMetricsParams(view);
+    }
+
+    // Renders a card in the background unless it is already up to date. Main thread only.
+    public void prerender(Flashcard card) {
+        // Read on this thread: the card may be edited here while the render runs
+        String[] sources = RenderedCard.sourcesOf(card);
+        RenderedCard existing = rendered.get(card);
+        if (existing != null && existing.isRenderedFrom(sources)) {
+            return;
+        }
+        RENDER_EXECUTOR.execute(() -> {
+            rendered.put(card, render(sources));
+            mainHandler.post(() -> renderedInBackground++);
+        });
+    }
+
+    // Renders the card if needed and precomputes its text for the views it will be shown in. Main thread only.
+    public void layOut(Flashcard card) {
+        String[] sources = RenderedCard.sourcesOf(card);
+        PrecomputedTextCompat.Params[] params = textParams.clone();
+        RenderedCard existing = rendered.get(card);
+        if (existing != null && existing.isRenderedFrom(sources) && hasLayout(existing)) {
+            return;
+        }
+        RENDER_EXECUTOR.execute(() -> {
+            RenderedCard result = rendered.get(card);
+            if (result == null || !result.isRenderedFrom(sources)) {
+                result = render(sources);
+                rendered.put(card, result);
+            }
+            if (hasLayout(result)) {
+                return;
+            }
+            PrecomputedTextCompat[] precomputed = new PrecomputedTextCompat[params.length];
+            for (Face face : Face.values()) {
+                CharSequence text = result.getText(face);
+                if (params[face.ordinal()] != null && text.length() > 0) {
+                    precomputed[face.ordinal()] = PrecomputedTextCompat.create(text, params[face.ordinal()]);
+                }
+            }
+            synchronized (layouts) {
+                layouts.put(result, precomputed);
+            }
+        });
+    }
+
+    /**
+     * Shows a face of the card in its view, as precomputed text if layOut()
+     * measured it with the view's current params. Main thread only.
+     */
+    public void setText(RenderedCard card, Face face, TextView view) {
+        PrecomputedTextCompat[] precomputed;
+        synchronized (layouts) {
+            precomputed = layouts.get(card);
+        }
+        PrecomputedTextCompat text = precomputed != null ? precomputed[face.ordinal()] : null;
+        if (text != null) {
+            PrecomputedTextCompat.Params viewParams = TextViewCompat.getTextMetricsParams(view);
+            if (text.getParams().equals(viewParams)) {
+                try {
+                    TextViewCompat.setPrecomputedText(view, text);
+                    precomputedShown++;
+                    return;
+                } catch (IllegalArgumentException e) {
+                    Log.w(TAG, "Precomputed text rejected for " + face, e);
+                }
+            }
+            // The view changed since its params were taken; later layouts use the new ones
+            textParams[face.ordinal()] = viewParams;
+        }
+        view.setText(card.getText(face));
+        if (card.getText(face).length() > 0) {
+            measuredOnScreen++;
+        }
+    }
+
+    private boolean hasLayout(RenderedCard card) {
+        synchronized (layouts) {
+            return layouts.containsKey(card);
+        }
+    }
+
+    // Rendered form of the card's current HTML, rendered now if it is not ready yet
+    public RenderedCard get(Flashcard card) {
+        String[] sources = RenderedCard.sourcesOf(card);
+        RenderedCard result = rendered.get(card);
+        if (result == null || !result.isRenderedFrom(sources)) {
+            result = render(sources);
+            rendered.put(card, result);
+            renderedOnDemand++;
+            Log.d(TAG, "Rendered card " + card.getCurrentNum() + " on demand (" + renderedOnDemand
+                    + " on demand, " + renderedInBackground + " in background, "
+                    + fallbackCount.get() + " Html.fromHtml fallbacks, " + precomputedShown
+                    + " texts shown precomputed, " + measuredOnScreen + " measured on screen)");
+        }
+        return result;
+    }
+
+    private static RenderedCard render(String[] sources) {
+        return new RenderedCard(sources, parseHtml(sources[Face.FRONT.ordinal()]),
+                parseHtml(sources[Face.BACK.ordinal()]));
+    }
+
+    // Converts Google Sheets rich text HTML for a TextView. Safe on any thread.
+    public static Spanned parseHtml(String html) {
+        if (html == null || html.isEmpty()) {
+            return fromHtml("");
+        }
+
+        // The markup Code.gs and the editor produce is parsed in one pass
+        Spanned parsed = CardHtmlParser.parse(html);
+        if (parsed != null) {
+            return parsed;
+        }
+        fallbackCount.incrementAndGet();
+
+        // Anything else goes through the general parser. Convert line breaks to <br> tags
+        String formatted = html.replace("\n", "<br>");
+
+        // Convert CSS underline styles to <u> tags for Android's HTML parser
+        // Google Sheets may send: <span style="text-decoration: underline;">text</span>
+        formatted = UNDERLINE_SPAN.matcher(formatted).replaceAll("<u>$3</u>");
+        formatted = UNDERLINE_LINE_SPAN.matcher(formatted).replaceAll("<u>$3</u>");
+
+        return fromHtml(formatted);
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Spanned fromHtml(String html) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            return Html.fromHtml(html, Html.FROM_HTML_MODE_COMPACT);
+        }
+        return Html.fromHtml(html);
+    }
+}
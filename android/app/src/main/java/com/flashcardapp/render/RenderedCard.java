@@ -0,0 +1,66 @@
+package com.flashcardapp.render;
+
+import android.text.Spanned;
+
+import com.flashcardapp.models.Flashcard;
+
+import java.util.Arrays;
+
+/**
+ * Display-ready form of a card: the front and back HTML as Spanned text,
+ * the pronunciation and extra text, and the plain text read out by TTS.
+ * Remembers what it was built from, so it can tell when the card has been
+ * edited or filled in since.
+ */
+public final class RenderedCard {
+
+    // The text shown in each view of a card, in the order of CardRenderer.Face
+    private final String[] sources;
+    private final CharSequence[] texts;
+    private final String frontSpeech;
+    private final String backSpeech;
+
+    RenderedCard(String[] sources, Spanned front, Spanned back) {
+        this.sources = sources;
+        this.texts = new CharSequence[] {
+                front,
+                back,
+                nonNull(sources[CardRenderer.Face.FRONT_PRONUNCIATION.ordinal()]),
+                nonNull(sources[CardRenderer.Face.BACK_PRONUNCIATION.ordinal()]),
+                nonNull(sources[CardRenderer.Face.FRONT_EXTRA.ordinal()]),
+                nonNull(sources[CardRenderer.Face.BACK_EXTRA.ordinal()])
+        };
+        this.frontSpeech = front.toString().trim();
+        this.backSpeech = back.toString().trim();
+    }
+
+    public Spanned getFront() { return (Spanned) texts[CardRenderer.Face.FRONT.ordinal()]; }
+    public Spanned getBack() { return (Spanned) texts[CardRenderer.Face.BACK.ordinal()]; }
+    public String getFrontSpeech() { return frontSpeech; }
+    public String getBackSpeech() { return backSpeech; }
+
+    public CharSequence getText(CardRenderer.Face face) {
+        return texts[face.ordinal()];
+    }
+
+    // What the card's views show, read on the calling thread
+    static String[] sourcesOf(Flashcard card) {
+        return new String[] {
+                card.getFrontSide(),
+                card.getBackSide(),
+                card.getFrontPronunciation(),
+                card.getBackPronunciation(),
+                card.getFrontSideExtra(),
+                card.getBackSideExtra()
+        };
+    }
+
+    // True if this was rendered from exactly these sources
+    boolean isRenderedFrom(String[] sources) {
+        return Arrays.equals(this.sources, sources);
+    }
+
+    private static String nonNull(String text) {
+        return text != null ? text : "";
+    }
+}
@@ -0,0 +1,136 @@
+package com.flashcardapp.sync;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.flashcardapp.data.CardStore;
+import com.flashcardapp.models.Flashcard;
+import com.flashcardapp.models.SheetSnapshot;
+import com.flashcardapp.models.SnapshotChunk;
+import com.flashcardapp.network.ApiClient;
+import com.flashcardapp.network.QuizApiService;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import retrofit2.Response;
+
+/**
+ * Downloads a whole sheet for offline study.
+ *
+ * Fetches the snapshot manifest, then each chunk in turn, writing every
+ * chunk to the CardStore as it arrives so only one chunk is held in memory.
+ * If the sheet changes during the download the server rejects the old
+ * version and the download starts over. Listener calls arrive on the main
+ * thread.
+ */
+public class DeckDownloader {
+
+    private static final String TAG = "DeckDownloader";
+    private static final int MAX_RESTARTS = 2;
+
+    // One download at a time across the app
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor();
+
+    public interface Listener {
+        void onProgress(int chunksDone, int chunkCount);
+        void onComplete(int cardCount);
+        void onError(String message);
+    }
+
+    private final Context context;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private volatile boolean cancelled = false;
+
+    public DeckDownloader(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    public void download(String sheetName, Listener listener) {
+        cancelled = false;
+        EXECUTOR.execute(() -> run(sheetName, listener));
+    }
+
+    // Stops after the chunk being fetched; chunks already stored are kept
+    public void cancel() {
+        cancelled = true;
+    }
+
+    private void run(String sheetName, Listener listener) {
+        QuizApiService apiService = ApiClient.getApiService(context);
+        if (apiService == null) {
+            postError(listener, "API service not available");
+            return;
+        }
+
+        CardStore cardStore = CardStore.getInstance(context);
+        long startTime = System.currentTimeMillis();
+
+        try {
+            for (int attempt = 0; attempt <= MAX_RESTARTS; attempt++) {
+                Response<SheetSnapshot> manifestResponse =
+                        apiService.getSheetSnapshot("getSheetSnapshot", sheetName).execute();
+                SheetSnapshot manifest = manifestResponse.body();
+                if (!manifestResponse.isSuccessful() || manifest == null || manifest.getError() != null) {
+                    postError(listener, manifest != null && manifest.getError() != null
+                            ? manifest.getError() : "Failed to load snapshot: " + manifestResponse.code());
+                    return;
+                }
+
+                Log.d(TAG, "Downloading " + sheetName + " v" + manifest.getVersion() + ": "
+                        + manifest.getTotalCards() + " cards in " + manifest.getChunkCount() + " chunks");
+
+                int cardCount = 0;
+                boolean outdated = false;
+                for (int chunk = 0; chunk < manifest.getChunkCount(); chunk++) {
+                    if (cancelled) {
+                        Log.d(TAG, "Download cancelled after " + chunk + " chunks");
+                        return;
+                    }
+
+                    Response<SnapshotChunk> chunkResponse = apiService.getSnapshotChunk("getSheetSnapshot",
+                            sheetName, manifest.getVersion(), chunk).execute();
+                    SnapshotChunk body = chunkResponse.body();
+                    if (!chunkResponse.isSuccessful() || body == null) {
+                        postError(listener, "Failed to load chunk " + chunk + ": " + chunkResponse.code());
+                        return;
+                    }
+                    if (body.getCards() == null) {
+                        // The sheet changed since the manifest was built
+                        Log.d(TAG, "Snapshot chunk " + chunk + " rejected: " + body.getError());
+                        outdated = true;
+                        break;
+                    }
+
+                    for (Flashcard card : body.getCards()) {
+                        card.setVersion(body.getVersion());
+                    }
+                    cardStore.putCards(sheetName, body.getCards());
+                    cardCount += body.getCards().size();
+                    final int chunksDone = chunk + 1;
+                    mainHandler.post(() -> listener.onProgress(chunksDone, manifest.getChunkCount()));
+                }
+
+                if (!outdated) {
+                    cardStore.setSheetVersion(sheetName, manifest.getVersion());
+                    Log.d(TAG, "Downloaded " + cardCount + " cards of " + sheetName + " in "
+                            + (System.currentTimeMillis() - startTime) + "ms");
+                    final int total = cardCount;
+                    mainHandler.post(() -> listener.onComplete(total));
+                    return;
+                }
+            }
+            postError(listener, "Sheet kept changing during download, please try again");
+        } catch (IOException | RuntimeException e) {
+            Log.e(TAG, "Error downloading " + sheetName, e);
+            postError(listener, "Error: " + e.getMessage());
+        }
+    }
+
+    private void postError(Listener listener, String message) {
+        mainHandler.post(() -> listener.onError(message));
+    }
+}
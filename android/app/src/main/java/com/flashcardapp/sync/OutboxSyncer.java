@@ -0,0 +1,330 @@
+package com.flashcardapp.sync;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.flashcardapp.data.MutationOutbox;
+import com.flashcardapp.models.Flashcard;
+import com.flashcardapp.models.MutationBatch;
+import com.flashcardapp.models.MutationBatchResult;
+import com.flashcardapp.models.PendingMutation;
+import com.flashcardapp.network.ApiClient;
+import com.flashcardapp.network.QuizApiService;
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * Replays the MutationOutbox to Google Sheets.
+ *
+ * Queued changes are sent oldest first on a background thread, many per
+ * applyMutations call. Deployments without that action get one save call
+ * per change instead. A failed send stops the queue and retries with
+ * exponential backoff so later changes never overtake earlier ones.
+ * Changes the server rejects are retried a few times and then dropped.
+ * Listeners are called on the main thread whenever the number of pending
+ * changes may have changed.
+ *
+ * Queued changes are also kept in memory, so cards fetched from the
+ * server before a change was saved there are shown with it applied, and
+ * a queued position is not replaced by the one the server still has.
+ */
+public class OutboxSyncer {
+
+    private static final String TAG = "OutboxSyncer";
+    private static final long BASE_BACKOFF_MS = 2000;
+    private static final long MAX_BACKOFF_MS = 5 * 60 * 1000;
+    private static final int MAX_REJECTED_ATTEMPTS = 5;
+    private static final int MAX_BATCH_SIZE = 50;
+
+    public interface Listener {
+        void onPendingCountChanged(int pendingCount);
+    }
+
+    private enum Result {
+        APPLIED,
+        REJECTED,
+        FAILED
+    }
+
+    private static OutboxSyncer instance;
+
+    private final Context context;
+    private final MutationOutbox outbox;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<Listener> listeners = new ArrayList<>(); // Main thread only
+    private volatile int pendingCount = 0;
+
+    // Queued changes by collapse key. Guarded by itself.
+    private final Map<String, PendingMutation> queuedChanges = new HashMap<>();
+
+    // Executor thread only
+    private ScheduledFuture<?> retry;
+    private int consecutiveFailures = 0;
+    private boolean batchUnsupported = false;
+
+    public static synchronized OutboxSyncer getInstance(Context context) {
+        if (instance == null) {
+            instance = new OutboxSyncer(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private OutboxSyncer(Context context) {
+        this.context = context;
+        this.outbox = MutationOutbox.getInstance(context);
+        executor.execute(this::publishPendingCount);
+    }
+
+    // Persists the change and starts sending it unless a retry is being waited out
+    public void enqueue(PendingMutation mutation) {
+        synchronized (queuedChanges) {
+            queuedChanges.put(mutation.getCollapseKey(), mutation);
+        }
+        executor.execute(() -> {
+            outbox.enqueue(mutation);
+            publishPendingCount();
+            drain();
+        });
+    }
+
+    // Sends queued changes now, skipping any remaining backoff (e.g. on resume)
+    public void syncNow() {
+        executor.execute(() -> {
+            if (retry != null) {
+                retry.cancel(false);
+                retry = null;
+            }
+            consecutiveFailures = 0;
+            batchUnsupported = false; // The script may have been redeployed
+            drain();
+        });
+    }
+
+    // Applies queued changes to a card read from the server. Any thread.
+    public void applyPending(String sheetName, Flashcard card) {
+        synchronized (queuedChanges) {
+            for (PendingMutation mutation : queuedChanges.values()) {
+                if (mutation.getCardNumber() == card.getCurrentNum() && mutation.getSheetName().equals(sheetName)) {
+                    mutation.applyTo(card);
+                }
+            }
+        }
+    }
+
+    // True while a position for the sheet is waiting to be saved to Google Sheets. Any thread.
+    public boolean hasPendingProgress(String sheetName) {
+        synchronized (queuedChanges) {
+            for (PendingMutation mutation : queuedChanges.values()) {
+                if (PendingMutation.TYPE_PROGRESS.equals(mutation.getType()) && mutation.getSheetName().equals(sheetName)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    // Registers a listener and immediately reports the current count. Main thread only.
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+        listener.onPendingCountChanged(pendingCount);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private void drain() {
+        if (retry != null && !retry.isDone()) {
+            return; // Backing off
+        }
+
+        QuizApiService apiService = ApiClient.getApiService(context);
+        if (apiService == null) {
+            Log.w(TAG, "API service not available, keeping " + pendingCount + " changes queued");
+            return;
+        }
+
+        while (true) {
+            List<PendingMutation> batch = outbox.peek(batchUnsupported ? 1 : MAX_BATCH_SIZE);
+            if (batch.isEmpty()) {
+                consecutiveFailures = 0;
+                return;
+            }
+
+            boolean sent = batchUnsupported
+                    ? sendSingle(apiService, batch.get(0))
+                    : sendBatch(apiService, batch);
+            publishPendingCount();
+            if (!sent) {
+                scheduleRetry();
+                return;
+            }
+            consecutiveFailures = 0;
+        }
+    }
+
+    // Sends queued changes in one call; returns false if the queue should back off
+    private boolean sendBatch(QuizApiService apiService, List<PendingMutation> batch) {
+        MutationBatchResult result;
+        try {
+            Response<MutationBatchResult> response =
+                    apiService.applyMutations("applyMutations", new MutationBatch(batch)).execute();
+            if (!response.isSuccessful() || response.body() == null) {
+                Log.w(TAG, "Failed to sync " + batch.size() + " changes: " + response.code());
+                return false;
+            }
+            result = response.body();
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Error syncing " + batch.size() + " changes", e);
+            return false;
+        }
+
+        if (result.getResults() == null) {
+            String error = result.getError();
+            if (error != null && error.startsWith("Unknown action")) {
+                Log.w(TAG, "applyMutations not deployed, falling back to one call per change");
+                batchUnsupported = true;
+                return true;
+            }
+            Log.w(TAG, "Server rejected batch: " + error);
+            return false;
+        }
+
+        Map<Long, MutationBatchResult.Result> resultsById = new HashMap<>();
+        for (MutationBatchResult.Result mutationResult : result.getResults()) {
+            if (mutationResult != null) {
+                resultsById.put(mutationResult.getId(), mutationResult);
+            }
+        }
+
+        boolean allDone = true;
+        for (PendingMutation mutation : batch) {
+            MutationBatchResult.Result mutationResult = resultsById.get(mutation.getId());
+            if (mutationResult != null && mutationResult.isSuccess()) {
+                outbox.remove(mutation.getId());
+            } else {
+                String error = mutationResult != null ? mutationResult.getError() : "missing result";
+                allDone &= reject(mutation, error);
+            }
+        }
+        Log.d(TAG, "Synced batch of " + batch.size() + " changes");
+        return allDone;
+    }
+
+    // Sends one change with its own save call; returns false if the queue should back off
+    private boolean sendSingle(QuizApiService apiService, PendingMutation mutation) {
+        switch (send(apiService, mutation)) {
+            case APPLIED:
+                outbox.remove(mutation.getId());
+                Log.d(TAG, "Synced " + mutation);
+                return true;
+            case REJECTED:
+                return reject(mutation, "error response");
+            default:
+                return false;
+        }
+    }
+
+    // Counts a rejection; returns true if the change was dropped for good
+    private boolean reject(PendingMutation mutation, String error) {
+        Log.w(TAG, "Server rejected " + mutation + ": " + error);
+        if (mutation.getAttempts() + 1 >= MAX_REJECTED_ATTEMPTS) {
+            outbox.remove(mutation.getId());
+            Log.w(TAG, "Dropping " + mutation + " after " + MAX_REJECTED_ATTEMPTS + " rejected attempts");
+            return true;
+        }
+        outbox.recordFailure(mutation.getId());
+        return false;
+    }
+
+    private Result send(QuizApiService apiService, PendingMutation mutation) {
+        Call<JsonObject> call;
+        switch (mutation.getType()) {
+            case PendingMutation.TYPE_IMPORTANCE:
+                call = apiService.saveImportance("saveImportance", mutation.getCardNumber(),
+                        mutation.getImportance(), mutation.getSheetName());
+                break;
+            case PendingMutation.TYPE_PROGRESS:
+                call = apiService.saveProgress("saveProgress", mutation.getCardNumber(), mutation.getSheetName());
+                break;
+            case PendingMutation.TYPE_CONTENT:
+                call = apiService.saveCardContent("saveCardContent", mutation.getCardNumber(),
+                        mutation.getSheetName(), mutation.getSide(), mutation.getHtml());
+                break;
+            default:
+                Log.w(TAG, "Unknown change type: " + mutation.getType());
+                return Result.REJECTED;
+        }
+
+        try {
+            Response<JsonObject> response = call.execute();
+            if (!response.isSuccessful()) {
+                Log.w(TAG, "Failed to sync " + mutation + ": " + response.code());
+                return Result.FAILED;
+            }
+            JsonObject body = response.body();
+            if (body != null && body.has("error")) {
+                Log.w(TAG, "Server rejected " + mutation + ": " + body.get("error"));
+                return Result.REJECTED;
+            }
+            return Result.APPLIED;
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Error syncing " + mutation, e);
+            return Result.FAILED;
+        }
+    }
+
+    private void scheduleRetry() {
+        long delay = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << Math.min(consecutiveFailures, 10));
+        consecutiveFailures++;
+        Log.d(TAG, "Retrying in " + delay + "ms (failure " + consecutiveFailures + ")");
+        retry = executor.schedule(() -> {
+            retry = null;
+            drain();
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void publishPendingCount() {
+        final int count = outbox.count();
+        pendingCount = count;
+
+        // Reload the in-memory copy. Changes enqueue() has not stored yet are newer, so they stay.
+        Map<String, PendingMutation> queued = new HashMap<>();
+        for (PendingMutation mutation : outbox.peek(Integer.MAX_VALUE)) {
+            queued.put(mutation.getCollapseKey(), mutation);
+        }
+        synchronized (queuedChanges) {
+            for (PendingMutation mutation : queuedChanges.values()) {
+                if (mutation.getId() == 0) {
+                    queued.put(mutation.getCollapseKey(), mutation);
+                }
+            }
+            queuedChanges.clear();
+            queuedChanges.putAll(queued);
+        }
+        mainHandler.post(() -> {
+            for (Listener listener : new ArrayList<>(listeners)) {
+                listener.onPendingCountChanged(count);
+            }
+        });
+    }
+}
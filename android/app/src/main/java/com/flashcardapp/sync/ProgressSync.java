@@ -0,0 +1,113 @@
+package com.flashcardapp.sync;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.flashcardapp.models.PendingMutation;
+
+/**
+ * Saves study progress locally at once and to Google Sheets lazily.
+ *
+ * Remote saveProgress calls are debounced: a burst of navigations
+ * produces a single queued save with the latest position. flush() queues
+ * the pending position immediately (used from onPause/onDestroy). Queued
+ * saves go through the OutboxSyncer, so they survive being offline.
+ * Use from the main thread.
+ */
+public class ProgressSync {
+
+    private static final String TAG = "ProgressSync";
+    private static final String PREFS_NAME = "FlashcardPreferences";
+    private static final String KEY_CARD_NUMBER = "current_card_number";
+    private static final long DEBOUNCE_MS = 3000;
+
+    private static ProgressSync instance;
+
+    private final Context context;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable flushRunnable = this::flush;
+
+    // Latest position not yet sent (pendingCard == 0 means nothing pending)
+    private String pendingSheet;
+    private int pendingCard = 0;
+
+    // Last position handed to the outbox
+    private String sentSheet;
+    private int sentCard = 0;
+
+    private int saveCount = 0;
+    private int postCount = 0;
+
+    public static synchronized ProgressSync getInstance(Context context) {
+        if (instance == null) {
+            instance = new ProgressSync(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private ProgressSync(Context context) {
+        this.context = context;
+    }
+
+    // Saves locally now and schedules a remote save after the debounce window
+    public void save(String sheetName, int cardNumber) {
+        SharedPreferences preferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        preferences.edit()
+                .putInt(KEY_CARD_NUMBER, cardNumber)
+                .apply();
+        Log.d(TAG, "Saved progress locally: Card=" + cardNumber);
+
+        saveCount++;
+        pendingSheet = sheetName;
+        pendingCard = cardNumber;
+
+        // Latest value wins: restart the debounce window
+        handler.removeCallbacks(flushRunnable);
+        handler.postDelayed(flushRunnable, DEBOUNCE_MS);
+    }
+
+    // Queues the pending position for Google Sheets now, if any
+    public void flush() {
+        handler.removeCallbacks(flushRunnable);
+        if (pendingCard == 0) {
+            return;
+        }
+
+        final String sheetName = pendingSheet;
+        final int cardNumber = pendingCard;
+        pendingSheet = null;
+        pendingCard = 0;
+
+        if (cardNumber == sentCard && sheetName.equals(sentSheet)) {
+            Log.d(TAG, "Progress unchanged since last sync, skipping: Card=" + cardNumber);
+            return;
+        }
+
+        sentSheet = sheetName;
+        sentCard = cardNumber;
+        postCount++;
+        Log.d(TAG, "Queueing for Google Sheets - Sheet: " + sheetName + ", Card: " + cardNumber
+                + " (" + postCount + " POSTs for " + saveCount + " saves)");
+
+        // Replaces any older queued position for this sheet
+        OutboxSyncer.getInstance(context).enqueue(PendingMutation.progress(sheetName, cardNumber));
+    }
+
+    // True if a position for the sheet has not reached Google Sheets yet, either debounced here or queued
+    public boolean hasUnsentProgress(String sheetName) {
+        return (pendingCard != 0 && sheetName.equals(pendingSheet))
+                || OutboxSyncer.getInstance(context).hasPendingProgress(sheetName);
+    }
+
+    public int getSaveCount() {
+        return saveCount;
+    }
+
+    // Remote saves queued; compare with getSaveCount()
+    public int getPostCount() {
+        return postCount;
+    }
+}
@@ -0,0 +1,203 @@
+package com.flashcardapp.ui;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.EditText;
+import android.widget.ScrollView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.cardview.widget.CardView;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.flashcardapp.R;
+import com.flashcardapp.models.Flashcard;
+import com.flashcardapp.render.CardRenderer;
+import com.flashcardapp.render.RenderedCard;
+
+/**
+ * Pages of the card pager, one per card of the sheet (position = card
+ * number - 1). A page is bound from the card cache when it is laid out,
+ * which CardPagerLayoutManager does for the previous and next card too,
+ * so moving to a neighbour only scrolls to a page that is ready.
+ *
+ * Pages whose card is not loaded yet are blank; the activity fills them
+ * in with bindCard() when the card arrives. Use from the main thread.
+ */
+class CardPageAdapter extends RecyclerView.Adapter<CardPageAdapter.PageHolder> {
+
+    interface CardSource {
+        // The loaded card, or null if it is not available yet
+        Flashcard getCard(int cardNumber);
+
+        // Called after a page has been bound to a card number
+        void onPageBound(PageHolder page);
+    }
+
+    /**
+     * The views of one card. The activity shows, flips and edits the card
+     * on screen through the views of its page.
+     */
+    static class PageHolder extends RecyclerView.ViewHolder {
+        final CardView container;
+        final ScrollView scrollView;
+        final TextView frontSideText;
+        final TextView backSideText;
+        final TextView frontPronunciationText;
+        final TextView backPronunciationText;
+        final TextView frontSideExtraText;
+        final TextView backSideExtraText;
+        final EditText frontSideEditText;
+        final EditText backSideEditText;
+
+        int cardNumber = 0; // 0 while not bound
+        private RenderedCard shownText; // What the text views hold, null when blank
+
+        PageHolder(View itemView) {
+            super(itemView);
+            container = itemView.findViewById(R.id.flashcardContainer);
+            scrollView = itemView.findViewById(R.id.scrollView);
+            frontSideText = itemView.findViewById(R.id.frontSideText);
+            backSideText = itemView.findViewById(R.id.backSideText);
+            frontPronunciationText = itemView.findViewById(R.id.frontPronunciationText);
+            backPronunciationText = itemView.findViewById(R.id.backPronunciationText);
+            frontSideExtraText = itemView.findViewById(R.id.frontSideExtraText);
+            backSideExtraText = itemView.findViewById(R.id.backSideExtraText);
+            frontSideEditText = itemView.findViewById(R.id.frontSideEditText);
+            backSideEditText = itemView.findViewById(R.id.backSideEditText);
+        }
+
+        // Sets the card's text; views already showing this rendering are left alone
+        void setText(RenderedCard rendered, CardRenderer renderer) {
+            if (rendered == shownText) {
+                return;
+            }
+            renderer.setText(rendered, CardRenderer.Face.FRONT, frontSideText);
+            renderer.setText(rendered, CardRenderer.Face.BACK, backSideText);
+            renderer.setText(rendered, CardRenderer.Face.FRONT_PRONUNCIATION, frontPronunciationText);
+            renderer.setText(rendered, CardRenderer.Face.BACK_PRONUNCIATION, backPronunciationText);
+            renderer.setText(rendered, CardRenderer.Face.FRONT_EXTRA, frontSideExtraText);
+            renderer.setText(rendered, CardRenderer.Face.BACK_EXTRA, backSideExtraText);
+            shownText = rendered;
+        }
+
+        void clearText() {
+            frontSideText.setText("");
+            backSideText.setText("");
+            frontPronunciationText.setText("");
+            backPronunciationText.setText("");
+            frontSideExtraText.setText("");
+            backSideExtraText.setText("");
+            shownText = null;
+        }
+
+        // Undoes flips and edit mode: front side up, scrolled to the top
+        void showFront() {
+            TextView[] views = {frontSideText, backSideText, frontPronunciationText, backPronunciationText,
+                    frontSideExtraText, backSideExtraText};
+            for (TextView view : views) {
+                view.setAlpha(1.0f);
+                view.setRotationY(0);
+            }
+            frontSideText.setVisibility(View.VISIBLE);
+            backSideText.setVisibility(View.GONE);
+            frontSideEditText.setVisibility(View.GONE);
+            backSideEditText.setVisibility(View.GONE);
+            showIfNotEmpty(frontPronunciationText, true);
+            showIfNotEmpty(backPronunciationText, false);
+            showIfNotEmpty(frontSideExtraText, true);
+            showIfNotEmpty(backSideExtraText, false);
+            scrollView.scrollTo(0, 0);
+        }
+
+        static void showIfNotEmpty(TextView view, boolean onVisibleSide) {
+            view.setVisibility(onVisibleSide && view.getText().length() > 0 ? View.VISIBLE : View.GONE);
+        }
+    }
+
+    private final CardSource source;
+    private final CardRenderer renderer;
+    private final View.OnTouchListener pageTouchListener;
+    private int cardCount = 0;
+    private boolean textParamsTaken = false;
+
+    CardPageAdapter(CardSource source, CardRenderer renderer, View.OnTouchListener pageTouchListener) {
+        this.source = source;
+        this.renderer = renderer;
+        this.pageTouchListener = pageTouchListener;
+    }
+
+    // Number of cards in the sheet; pages already bound keep their content
+    void setCardCount(int count) {
+        if (count == cardCount) {
+            return;
+        }
+        int previous = cardCount;
+        cardCount = count;
+        if (count > previous) {
+            notifyItemRangeInserted(previous, count - previous);
+        } else {
+            notifyItemRangeRemoved(count, previous - count);
+        }
+    }
+
+    int getCardCount() {
+        return cardCount;
+    }
+
+    // Drops every page, e.g. when another sheet is opened
+    void reset() {
+        cardCount = 0;
+        notifyDataSetChanged();
+    }
+
+    // Shows the card on its page (front side up)
+    void bindCard(PageHolder page, Flashcard card) {
+        page.setText(renderer.get(card), renderer);
+        page.showFront();
+    }
+
+    @NonNull
+    @Override
+    public PageHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_flashcard_page, parent, false);
+        PageHolder page = new PageHolder(view);
+        page.container.setOnTouchListener(pageTouchListener);
+        page.scrollView.setOnTouchListener(pageTouchListener);
+        if (!textParamsTaken) {
+            // Every page has the same views, so text precomputed for one fits them all
+            renderer.setTextParams(CardRenderer.Face.FRONT, page.frontSideText);
+            renderer.setTextParams(CardRenderer.Face.BACK, page.backSideText);
+            renderer.setTextParams(CardRenderer.Face.FRONT_PRONUNCIATION, page.frontPronunciationText);
+            renderer.setTextParams(CardRenderer.Face.BACK_PRONUNCIATION, page.backPronunciationText);
+            renderer.setTextParams(CardRenderer.Face.FRONT_EXTRA, page.frontSideExtraText);
+            renderer.setTextParams(CardRenderer.Face.BACK_EXTRA, page.backSideExtraText);
+            textParamsTaken = true;
+        }
+        return page;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull PageHolder page, int position) {
+        page.cardNumber = position + 1;
+        Flashcard card = source.getCard(page.cardNumber);
+        if (card != null) {
+            bindCard(page, card);
+        } else {
+            page.clearText();
+            page.showFront();
+        }
+        source.onPageBound(page);
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull PageHolder page) {
+        page.cardNumber = 0;
+    }
+
+    @Override
+    public int getItemCount() {
+        return cardCount;
+    }
+}
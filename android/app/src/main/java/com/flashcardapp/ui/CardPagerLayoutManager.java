@@ -0,0 +1,35 @@
+package com.flashcardapp.ui;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Horizontal layout for the card pager that also lays out one page on each
+ * side of the visible one, so the previous and next cards are bound and
+ * measured before the user moves to them.
+ *
+ * Pages only move when the activity scrolls to another card: a horizontal
+ * swipe on a card flips it, so the pager does not take drags for itself.
+ */
+class CardPagerLayoutManager extends LinearLayoutManager {
+
+    CardPagerLayoutManager(Context context) {
+        super(context, HORIZONTAL, false);
+    }
+
+    @Override
+    public boolean canScrollHorizontally() {
+        // Smooth scrolls to a neighbouring page still need to move the pages
+        return isSmoothScrolling();
+    }
+
+    @Override
+    protected void calculateExtraLayoutSpace(@NonNull RecyclerView.State state, @NonNull int[] extraLayoutSpace) {
+        int pageWidth = getWidth() - getPaddingLeft() - getPaddingRight();
+        extraLayoutSpace[0] = pageWidth;
+        extraLayoutSpace[1] = pageWidth;
+    }
+}
@@ -13,11 +13,10 @@ import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
 import android.os.Environment;
+import android.os.SystemClock;
 import android.provider.MediaStore;
 import android.speech.tts.TextToSpeech;
 import android.speech.tts.UtteranceProgressListener;
-import android.text.Html;
-import android.text.Spanned;
 import android.util.Log;
 import android.view.GestureDetector;
 import android.view.MotionEvent;
@@ -34,22 +33,42 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.cardview.widget.CardView;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.flashcardapp.R;
+import com.flashcardapp.data.CardCache;
+import com.flashcardapp.data.CardStore;
+import com.flashcardapp.models.Bootstrap;
+import com.flashcardapp.models.CardChange;
+import com.flashcardapp.models.ChangeFeed;
 import com.flashcardapp.models.Flashcard;
-import com.flashcardapp.models.FlashcardBatch;
+import com.flashcardapp.models.PendingMutation;
 import com.flashcardapp.models.SheetList;
+import com.flashcardapp.models.SheetVersion;
 import com.flashcardapp.models.StartingInfo;
 import com.flashcardapp.network.ApiClient;
 import com.flashcardapp.network.QuizApiService;
+import com.flashcardapp.network.RequestLifecycle;
+import com.flashcardapp.network.SingleFlightCardLoader;
+import com.flashcardapp.prefetch.AdaptivePrefetchPolicy;
+import com.flashcardapp.prefetch.PrefetchPolicy;
+import com.flashcardapp.prefetch.PrefetchScheduler;
+import com.flashcardapp.prefetch.PrefetchWindow;
+import com.flashcardapp.render.CardRenderer;
+import com.flashcardapp.render.RenderedCard;
+import com.flashcardapp.sync.OutboxSyncer;
+import com.flashcardapp.sync.ProgressSync;
 import com.google.android.material.button.MaterialButton;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -64,7 +83,14 @@ public class FlashcardActivity extends AppCompatActivity {
     private static final String KEY_TTS_SPEED = "tts_speech_rate";
     private static final String KEY_TTS_AUTO_PLAY = "tts_auto_play";
     private static final String KEY_TTS_LANGUAGE = "tts_language";
-    private static final int PREFETCH_COUNT = 10; // Number of cards to prefetch
+    private static final int CACHE_MEMORY_FRACTION = 32; // Card cache may use 1/32 of the heap
+    private static final int CACHE_PIN_RADIUS = 2; // Cards around the current one are never evicted
+    private static final int LAYOUT_AHEAD = 2; // Upcoming cards whose text is precomputed for the views
+    private static final int MAX_PREFETCH_REQUESTS = 3; // Concurrent getFlashcardBatch calls
+    private static final int MAX_PREFETCH_BATCH = 25; // Cards per getFlashcardBatch call
+    private static final int FULL_PREFETCH_DISTANCE = 3; // Ranges further away fetch only LIGHT_FIELDS
+    private static final String LIGHT_FIELDS = "frontSide,backSide,importance";
+    private static final String HEAVY_FIELDS = "frontPronunciation,backPronunciation,frontSideExtra,backSideExtra";
     private static final int SWIPE_THRESHOLD = 100;
     private static final int SWIPE_VELOCITY_THRESHOLD = 100;
     private static final int REQUEST_RECORD_AUDIO = 200;
@@ -73,6 +99,13 @@ public class FlashcardActivity extends AppCompatActivity {
 
     // Views
     private TextView cardProgressText;
+    private RecyclerView cardPager;
+    private CardPagerLayoutManager cardPagerLayout;
+    private CardPageAdapter cardPages;
+    private CardPageAdapter.PageHolder currentPage; // Page of currentCardNumber once it is laid out
+    private int pagerCardNumber = 0; // Card the pager was last moved to
+
+    // Views of the current page, see attachPage()
     private CardView flashcardContainer;
     private android.widget.ScrollView scrollView;
     private TextView frontSideText;
@@ -109,6 +142,11 @@ public class FlashcardActivity extends AppCompatActivity {
 
     // API
     private QuizApiService apiService;
+    private final RequestLifecycle requestLifecycle = new RequestLifecycle();
+    private final SingleFlightCardLoader cardLoader = new SingleFlightCardLoader(requestLifecycle);
+
+    // Renders card HTML in the background as cards are prefetched
+    private final CardRenderer cardRenderer = new CardRenderer();
 
     // Audio
     private MediaRecorder mediaRecorder;
@@ -127,15 +165,38 @@ public class FlashcardActivity extends AppCompatActivity {
     private int currentCardNumber = 1;
     private boolean isShowingFront = true;
     private boolean isEditMode = false;
+    private boolean isBootstrapping = false; // Cold start request in flight
+    private Flashcard fillingCard; // Partial card whose heavy fields are being fetched
+
+    // Cache for prefetched cards, bounded by estimated memory use
+    private final CardCache cardCache = new CardCache(Runtime.getRuntime().maxMemory() / CACHE_MEMORY_FRACTION);
+    private final PrefetchPolicy prefetchPolicy = new AdaptivePrefetchPolicy();
+    private final PrefetchScheduler prefetchScheduler = new PrefetchScheduler(MAX_PREFETCH_REQUESTS, MAX_PREFETCH_BATCH);
+
+    // Persistent card store (survives process death)
+    private CardStore cardStore;
+
+    // Latest known data version of the current sheet, -1 until revalidated
+    private int sheetVersion = -1;
+
+    // Debounced progress sync to Google Sheets
+    private ProgressSync progressSync;
 
-    // Cache for prefetched cards
-    private Map<Integer, Flashcard> cardCache = new HashMap<>();
-    private boolean isPrefetching = false;
+    // Durable queue for importance, progress and content changes
+    private OutboxSyncer outboxSyncer;
+
+    // Single disk thread shared by all activity instances, so late callbacks can still write
+    private static final ExecutorService DISK_EXECUTOR = Executors.newSingleThreadExecutor();
 
     // Gesture detector for swipe
     private GestureDetector gestureDetector;
     private boolean isFlipping = false;
 
+    // Flip in progress: its page, animators and the callback that ends it
+    private CardPageAdapter.PageHolder flipPage;
+    private final List<AnimatorSet> flipAnimators = new ArrayList<>();
+    private Runnable flipEnd;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -145,6 +206,10 @@ public class FlashcardActivity extends AppCompatActivity {
         setupClickListeners();
         initializeTTS();
 
+        cardStore = CardStore.getInstance(this);
+        progressSync = ProgressSync.getInstance(this);
+        outboxSyncer = OutboxSyncer.getInstance(this);
+
         // Check if API URL is configured
         if (!ApiClient.isConfigured(this)) {
             showError("Please configure API URL in Settings");
@@ -161,29 +226,46 @@ public class FlashcardActivity extends AppCompatActivity {
             return;
         }
 
-        // Check if sheet name is set, if not, fetch available sheets
+        // Show the last card from local storage first, then revalidate it
+        // together with the sheet list and starting position in one round trip
         SharedPreferences prefs = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
-        if (!prefs.contains(KEY_SHEET_NAME)) {
-            Log.d(TAG, "Sheet name not set, fetching available sheets...");
-            fetchAndSetDefaultSheet();
+        if (prefs.contains(KEY_SHEET_NAME)) {
+            showStoredCard();
+            bootstrap(false);
         } else {
-            // Load starting position
-            loadStartingInfo();
+            bootstrap(true);
         }
     }
 
+    // Stale-while-revalidate start: the last persisted card, without waiting for the network
+    private void showStoredCard() {
+        SharedPreferences prefs = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
+        String sheetName = prefs.getString(KEY_SHEET_NAME, "Sheet1");
+        int cardNumber = prefs.getInt(KEY_CARD_NUMBER, 1);
+        currentCardNumber = cardNumber;
+        switchToSheet(sheetName);
+
+        DISK_EXECUTOR.execute(() -> {
+            Flashcard storedCard = cardStore.getCard(sheetName, cardNumber);
+            runOnUiThread(() -> {
+                if (isDestroyed() || currentFlashcard != null || currentCardNumber != cardNumber
+                        || !requestLifecycle.isCurrentSheet(sheetName)) {
+                    return; // Something newer is already on screen
+                }
+                if (storedCard != null) {
+                    Log.d(TAG, "Showing stored card " + cardNumber + " of " + sheetName + " while revalidating");
+                    currentFlashcard = storedCard;
+                    displayFlashcard(storedCard);
+                } else if (isBootstrapping) {
+                    showLoading(true); // Nothing stored: wait for the server after all
+                }
+            });
+        });
+    }
+
     private void initViews() {
         cardProgressText = findViewById(R.id.cardProgressText);
-        flashcardContainer = findViewById(R.id.flashcardContainer);
-        scrollView = findViewById(R.id.scrollView);
-        frontSideText = findViewById(R.id.frontSideText);
-        backSideText = findViewById(R.id.backSideText);
-        frontPronunciationText = findViewById(R.id.frontPronunciationText);
-        backPronunciationText = findViewById(R.id.backPronunciationText);
-        frontSideExtraText = findViewById(R.id.frontSideExtraText);
-        backSideExtraText = findViewById(R.id.backSideExtraText);
-        frontSideEditText = findViewById(R.id.frontSideEditText);
-        backSideEditText = findViewById(R.id.backSideEditText);
+        cardPager = findViewById(R.id.cardPager);
         previousButton = findViewById(R.id.previousButton);
         nextButton = findViewById(R.id.nextButton);
         editButton = findViewById(R.id.editButton);
@@ -207,6 +289,119 @@ public class FlashcardActivity extends AppCompatActivity {
         colorPalette = findViewById(R.id.colorPalette);
         editControls = findViewById(R.id.editControls);
         progressBar = findViewById(R.id.progressBar);
+
+        initCardPager();
+    }
+
+    // One recycled page per card; the previous and next cards are bound and laid out offscreen
+    private void initCardPager() {
+        // Swipes on a page flip the card (see setupClickListeners)
+        View.OnTouchListener swipeListener = (v, event) -> {
+            Log.d(TAG, "Touch event: " + event.getAction());
+            gestureDetector.onTouchEvent(event);
+            return false; // Let ScrollView handle scrolling
+        };
+        cardPages = new CardPageAdapter(new CardPageAdapter.CardSource() {
+            @Override
+            public Flashcard getCard(int cardNumber) {
+                return cardCache.peek(cardNumber);
+            }
+
+            @Override
+            public void onPageBound(CardPageAdapter.PageHolder page) {
+                if (page.cardNumber != currentCardNumber || page == currentPage) {
+                    return;
+                }
+                // The current card was waiting for its page; show it once this layout pass is done
+                cardPager.post(() -> {
+                    if (page.cardNumber == currentCardNumber && page != currentPage && !isEditMode
+                            && currentFlashcard != null && currentFlashcard.getCurrentNum() == currentCardNumber) {
+                        displayFlashcard(currentFlashcard);
+                    }
+                });
+            }
+        }, cardRenderer, swipeListener);
+
+        cardPagerLayout = new CardPagerLayoutManager(this);
+        cardPager.setLayoutManager(cardPagerLayout);
+        cardPager.setItemAnimator(null); // Pages change in place, without fades
+        cardPager.setHasFixedSize(true);
+        cardPager.setAdapter(cardPages);
+        cardPager.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+                // A touch can stop a page transition halfway; finish it
+                if (newState == RecyclerView.SCROLL_STATE_IDLE && pagerCardNumber > 0
+                        && cardPagerLayout.findFirstCompletelyVisibleItemPosition() != pagerCardNumber - 1) {
+                    cardPagerLayout.scrollToPositionWithOffset(pagerCardNumber - 1, 0);
+                }
+            }
+        });
+    }
+
+    /**
+     * Moves the pager to the card's page and makes it the current page.
+     * Neighbouring pages are scrolled to, others jumped to. Returns false if
+     * the page has not been laid out yet; onPageBound() then shows the card.
+     */
+    private boolean showPage(int cardNumber, int totalCards) {
+        cardPages.setCardCount(Math.max(totalCards, cardNumber));
+        CardPageAdapter.PageHolder page = findPage(cardNumber);
+        if (cardNumber != pagerCardNumber) {
+            if (page != null && Math.abs(cardNumber - pagerCardNumber) == 1) {
+                cardPager.smoothScrollToPosition(cardNumber - 1);
+            } else {
+                cardPagerLayout.scrollToPositionWithOffset(cardNumber - 1, 0);
+            }
+            pagerCardNumber = cardNumber;
+        }
+        if (page == null) {
+            return false;
+        }
+        attachPage(page);
+        return true;
+    }
+
+    // True once the current card's page is laid out and attached
+    private boolean hasCurrentPage() {
+        return currentPage != null && currentPage.cardNumber == currentCardNumber;
+    }
+
+    private CardPageAdapter.PageHolder findPage(int cardNumber) {
+        if (cardNumber < 1 || cardNumber > cardPages.getCardCount()) {
+            return null;
+        }
+        return (CardPageAdapter.PageHolder) cardPager.findViewHolderForAdapterPosition(cardNumber - 1);
+    }
+
+    // Points the card views used by flipping, editing and TTS at the current page
+    private void attachPage(CardPageAdapter.PageHolder page) {
+        if (page == currentPage) {
+            return;
+        }
+        currentPage = page;
+        flashcardContainer = page.container;
+        scrollView = page.scrollView;
+        frontSideText = page.frontSideText;
+        backSideText = page.backSideText;
+        frontPronunciationText = page.frontPronunciationText;
+        backPronunciationText = page.backPronunciationText;
+        frontSideExtraText = page.frontSideExtraText;
+        backSideExtraText = page.backSideExtraText;
+        frontSideEditText = page.frontSideEditText;
+        backSideEditText = page.backSideEditText;
+    }
+
+    // Rebinds the page of a card that changed; the current card is redrawn by displayFlashcard()
+    private void refreshPage(int cardNumber) {
+        if (cardNumber == currentCardNumber) {
+            return;
+        }
+        CardPageAdapter.PageHolder page = findPage(cardNumber);
+        Flashcard card = cardCache.peek(cardNumber);
+        if (page != null && card != null) {
+            cardPages.bindCard(page, card);
+        }
     }
 
     private void setupClickListeners() {
@@ -241,15 +436,7 @@ public class FlashcardActivity extends AppCompatActivity {
             }
         });
 
-        // Apply gesture detector to both card container and scroll view
-        View.OnTouchListener swipeListener = (v, event) -> {
-            Log.d(TAG, "Touch event: " + event.getAction());
-            gestureDetector.onTouchEvent(event);
-            return false; // Let ScrollView handle scrolling
-        };
-
-        flashcardContainer.setOnTouchListener(swipeListener);
-        scrollView.setOnTouchListener(swipeListener);
+        // Each card page passes its touches to the gesture detector (see initCardPager)
 
         previousButton.setOnClickListener(v -> loadPreviousCard());
         nextButton.setOnClickListener(v -> loadNextCard());
@@ -300,6 +487,9 @@ public class FlashcardActivity extends AppCompatActivity {
             return;
         }
 
+        // Replay changes made while offline or before the app was killed
+        outboxSyncer.syncNow();
+
         // Clear cache and reload if sheet was changed in settings
         SharedPreferences preferences = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
         String sheetName = preferences.getString(KEY_SHEET_NAME, "Sheet1");
@@ -309,17 +499,243 @@ public class FlashcardActivity extends AppCompatActivity {
         if (currentCardNumber != savedCardNumber) {
             Log.d(TAG, "Card number changed in Settings: " + currentCardNumber + " -> " + savedCardNumber);
             currentCardNumber = savedCardNumber;
+            prefetchPolicy.onNavigate(currentCardNumber, SystemClock.elapsedRealtime());
         }
 
         // Load TTS settings
         loadTtsSettings();
 
-        // Only clear cache if we have cards cached (avoid clearing on first load)
-        if (!cardCache.isEmpty()) {
-            cardCache.clear();
-            Log.d(TAG, "Cache cleared due to potential sheet change");
+        // On a cold start the bootstrap response loads the first card
+        if (isBootstrapping) {
+            return;
+        }
+
+        // Cached cards stay valid unless the sheet changed since they were read
+        loadCurrentCard();
+        revalidateSheet(sheetName);
+    }
+
+    // Asks the server whether the sheet changed since the version we know
+    private void revalidateSheet(String sheetName) {
+        if (sheetVersion >= 0) {
+            requestSheetVersion(sheetName, sheetVersion);
+            return;
+        }
+        DISK_EXECUTOR.execute(() -> {
+            int storedVersion = cardStore.getSheetVersion(sheetName);
+            runOnUiThread(() -> requestSheetVersion(sheetName, storedVersion));
+        });
+    }
+
+    private void requestSheetVersion(String sheetName, int knownVersion) {
+        if (isDestroyed() || apiService == null || !requestLifecycle.isCurrentSheet(sheetName)) {
+            return;
+        }
+        if (knownVersion >= 0) {
+            requestChangesSince(sheetName, knownVersion);
+            return;
+        }
+
+        // No baseline yet: just learn the current version
+        apiService.getSheetVersion("getSheetVersion", sheetName)
+                .enqueue(new Callback<SheetVersion>() {
+                    @Override
+                    public void onResponse(Call<SheetVersion> call, Response<SheetVersion> response) {
+                        if (!response.isSuccessful() || response.body() == null
+                                || !requestLifecycle.isCurrentSheet(sheetName)) {
+                            return;
+                        }
+                        applySheetVersion(sheetName, response.body().getVersion());
+                    }
+
+                    @Override
+                    public void onFailure(Call<SheetVersion> call, Throwable t) {
+                        Log.w(TAG, "Could not revalidate " + sheetName + ", keeping cache", t);
+                    }
+                });
+    }
+
+    // Pulls only the cards edited since knownVersion and patches them in place
+    private void requestChangesSince(String sheetName, int knownVersion) {
+        apiService.getChangesSince("getChangesSince", sheetName, knownVersion)
+                .enqueue(new Callback<ChangeFeed>() {
+                    @Override
+                    public void onResponse(Call<ChangeFeed> call, Response<ChangeFeed> response) {
+                        ChangeFeed feed = response.body();
+                        if (!response.isSuccessful() || feed == null || !requestLifecycle.isCurrentSheet(sheetName)) {
+                            return;
+                        }
+                        if (feed.isUntracked()) {
+                            dropUntrackedCards(sheetName, feed.getVersion());
+                        } else if (feed.isResync()) {
+                            applySheetVersion(sheetName, feed.getVersion());
+                        } else if (feed.getVersion() == knownVersion) {
+                            Log.d(TAG, "Sheet " + sheetName + " unchanged at v" + knownVersion + ", keeping cache");
+                            sheetVersion = knownVersion;
+                        } else {
+                            applyChangeFeed(sheetName, knownVersion, feed);
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Call<ChangeFeed> call, Throwable t) {
+                        Log.w(TAG, "Could not revalidate " + sheetName + ", keeping cache", t);
+                    }
+                });
+    }
+
+    private void applyChangeFeed(String sheetName, int sinceVersion, ChangeFeed feed) {
+        DISK_EXECUTOR.execute(() -> cardStore.applyChanges(sheetName, sinceVersion, feed));
+
+        Map<Integer, CardChange> changes = feed.getChangesByCard();
+        for (Flashcard card : cardCache.cards()) {
+            if (card.getVersion() >= sinceVersion) {
+                feed.applyTo(card, changes.get(card.getCurrentNum()));
+                outboxSyncer.applyPending(sheetName, card); // Local changes not saved yet still win
+                cardCache.put(card.getCurrentNum(), card); // Size may have changed
+                cardRenderer.prerender(card);
+                refreshPage(card.getCurrentNum());
+            }
+        }
+        // Cards read before sinceVersion may have missed earlier edits
+        cardCache.removeOlderThan(feed.getVersion());
+        sheetVersion = feed.getVersion();
+        Log.d(TAG, "Applied " + changes.size() + " changed cards, sheet " + sheetName + " now v" + sheetVersion);
+
+        if (currentFlashcard == null) {
+            return;
+        }
+        if (currentFlashcard.getVersion() >= sinceVersion) {
+            // Usually the cached object itself, already patched above; applying again is harmless
+            CardChange change = changes.get(currentFlashcard.getCurrentNum());
+            feed.applyTo(currentFlashcard, change);
+            outboxSyncer.applyPending(sheetName, currentFlashcard);
+            if (change != null && !isEditMode) {
+                displayFlashcard(currentFlashcard);
+            }
+        } else if (!isEditMode) {
+            loadCurrentCard();
+        }
+    }
+
+    // The sheet changed: drop cards read before the new version and reload the current one if stale
+    private void applySheetVersion(String sheetName, int version) {
+        sheetVersion = version;
+        DISK_EXECUTOR.execute(() -> cardStore.setSheetVersion(sheetName, version));
+
+        int removed = cardCache.removeOlderThan(version);
+        Log.d(TAG, "Sheet " + sheetName + " is at v" + version + ", dropped " + removed + " stale cached cards");
+
+        if (currentFlashcard != null && currentFlashcard.getVersion() < version && !isEditMode) {
+            loadCurrentCard();
+        } else {
+            prefetchCards();
+        }
+    }
+
+    // Without the script's edit triggers the version misses edits made in the sheet, so nothing read earlier is trusted
+    private void dropUntrackedCards(String sheetName, int version) {
+        sheetVersion = version;
+        DISK_EXECUTOR.execute(() -> cardStore.clearSheet(sheetName));
+        cardCache.clear();
+        Log.d(TAG, "Sheet " + sheetName + " edits are not tracked by the server, refetching cards");
+
+        if (currentFlashcard != null && !isEditMode) {
+            // The card on screen stays until the current copy arrives
+            loadCurrentCardFromNetwork(sheetName, requestLifecycle.advance(), true);
+        }
+    }
+
+    // showSpinner: false if a stored card may be shown in the meantime
+    private void bootstrap(boolean showSpinner) {
+        if (showSpinner) {
+            showLoading(true);
         }
+        isBootstrapping = true;
+
+        SharedPreferences prefs = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
+        String savedSheet = prefs.getString(KEY_SHEET_NAME, null);
+        final int localCardNumber = currentCardNumber;
 
+        apiService.bootstrap("bootstrap", savedSheet).enqueue(new Callback<Bootstrap>() {
+            @Override
+            public void onResponse(Call<Bootstrap> call, Response<Bootstrap> response) {
+                isBootstrapping = false;
+                Bootstrap bootstrap = response.body();
+                if (response.isSuccessful() && bootstrap != null && bootstrap.getSheetName() != null) {
+                    applyBootstrap(savedSheet, localCardNumber, bootstrap);
+                    return;
+                }
+                // Older scripts without the bootstrap action
+                Log.w(TAG, "Bootstrap not available, loading step by step");
+                if (savedSheet == null) {
+                    fetchAndSetDefaultSheet();
+                } else {
+                    loadStartingInfo();
+                }
+            }
+
+            @Override
+            public void onFailure(Call<Bootstrap> call, Throwable t) {
+                isBootstrapping = false;
+                showLoading(false);
+                if (savedSheet == null) {
+                    Log.e(TAG, "Error bootstrapping", t);
+                    showError("Network error. Please check Settings.");
+                } else {
+                    Log.e(TAG, "Network error bootstrapping, using local cache", t);
+                    loadFromLocalCache();
+                }
+            }
+        });
+    }
+
+    // localCardNumber: position when the request was made; if the user moved since, theirs wins
+    private void applyBootstrap(String savedSheet, int localCardNumber, Bootstrap bootstrap) {
+        showLoading(false);
+        String sheetName = bootstrap.getSheetName();
+        if (!sheetName.equals(savedSheet)) {
+            // No sheet chosen yet, or the saved one no longer exists
+            SharedPreferences prefs = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
+            prefs.edit().putString(KEY_SHEET_NAME, sheetName).apply();
+            Log.d(TAG, "Set default sheet to: " + sheetName);
+            Toast.makeText(this, "Using sheet: " + sheetName, Toast.LENGTH_SHORT).show();
+        }
+
+        switchToSheet(sheetName);
+        if (progressSync.hasUnsentProgress(sheetName)) {
+            // The server has not seen the latest local position yet
+            Log.d(TAG, "Keeping unsent local progress " + currentCardNumber
+                    + " over server " + bootstrap.getQuestionNumber());
+        } else if (currentFlashcard == null || currentCardNumber == localCardNumber) {
+            if (currentCardNumber != bootstrap.getQuestionNumber()) {
+                Log.d(TAG, "Server progress differs: " + currentCardNumber + " -> " + bootstrap.getQuestionNumber());
+            }
+            currentCardNumber = bootstrap.getQuestionNumber();
+        }
+        sheetVersion = bootstrap.getVersion();
+        if (bootstrap.isUntracked()) {
+            cardCache.clear(); // Read from the store, which may miss sheet edits
+        }
+
+        List<Flashcard> cards = bootstrap.getBatch() != null ? bootstrap.getBatch().getCards() : null;
+        if (cards != null) {
+            for (Flashcard card : cards) {
+                cacheCard(sheetName, card);
+            }
+        }
+        DISK_EXECUTOR.execute(() -> {
+            if (bootstrap.isUntracked()) {
+                cardStore.clearSheet(sheetName); // May miss sheet edits; refetched as they are shown
+            }
+            if (cards != null) {
+                cardStore.putCards(sheetName, cards);
+            }
+            cardStore.setSheetVersion(sheetName, bootstrap.getVersion());
+        });
+
+        Log.d(TAG, "Bootstrapped " + sheetName + " v" + sheetVersion + ": Card=" + currentCardNumber
+                + ", " + (cards != null ? cards.size() : 0) + " cards");
         loadCurrentCard();
     }
 
@@ -367,7 +783,9 @@ public class FlashcardActivity extends AppCompatActivity {
     }
 
     private void loadStartingInfo() {
-        showLoading(true);
+        if (currentFlashcard == null) {
+            showLoading(true);
+        }
 
         SharedPreferences preferences = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
         String sheetName = preferences.getString(KEY_SHEET_NAME, "Sheet1");
@@ -407,11 +825,24 @@ public class FlashcardActivity extends AppCompatActivity {
     }
 
     private void loadCurrentCard() {
+        SharedPreferences preferences = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
+        String sheetName = preferences.getString(KEY_SHEET_NAME, "Sheet1");
+
+        switchToSheet(sheetName);
+
+        // New navigation: superseded card loads are cancelled and their callbacks ignored
+        final int generation = requestLifecycle.advance();
+
+        // Keep the cards around the current position from being evicted
+        cardCache.pinAround(currentCardNumber, CACHE_PIN_RADIUS);
+        layOutAround(currentCardNumber);
+
         // Check if card is in cache
-        if (cardCache.containsKey(currentCardNumber)) {
+        Flashcard cachedCard = cardCache.get(currentCardNumber);
+        if (cachedCard != null) {
             Log.d(TAG, "Loading card " + currentCardNumber + " from cache");
-            currentFlashcard = cardCache.get(currentCardNumber);
-            displayFlashcard(currentFlashcard);
+            showLoading(false); // A superseded network load may have left the spinner up
+            showCard(cachedCard);
             // Don't save progress here - only save when user navigates
 
             // Prefetch more cards if needed
@@ -419,103 +850,276 @@ public class FlashcardActivity extends AppCompatActivity {
             return;
         }
 
-        // Load from network if not in cache
-        showLoading(true);
-        resetCardState();
+        final int cardToLoad = currentCardNumber;
+
+        // Check the persistent store before going to the network
+        DISK_EXECUTOR.execute(() -> {
+            Flashcard storedCard = cardStore.getCard(sheetName, cardToLoad);
+            runOnUiThread(() -> {
+                if (isDestroyed() || !requestLifecycle.isCurrent(generation)) {
+                    return; // User navigated away while reading
+                }
+                if (storedCard != null) {
+                    Log.d(TAG, "Loading card " + cardToLoad + " from local store");
+                    showLoading(false);
+                    showCard(storedCard);
+                    if (storedCard.getVersion() < sheetVersion) {
+                        // Show the stored copy now and replace it once the current one arrives
+                        loadCurrentCardFromNetwork(sheetName, generation, true);
+                    } else {
+                        cardCache.put(cardToLoad, storedCard);
+                        prefetchCards();
+                    }
+                } else {
+                    loadCurrentCardFromNetwork(sheetName, generation, false);
+                }
+            });
+        });
+    }
+
+    // Drop everything that belongs to the previous sheet
+    private void switchToSheet(String sheetName) {
+        if (requestLifecycle.isCurrentSheet(sheetName)) {
+            return;
+        }
+        requestLifecycle.switchSheet(sheetName);
+        cardCache.clear();
+        prefetchScheduler.reset();
+        currentFlashcard = null; // Its totalCards belongs to the old sheet
+        cardPages.reset();
+        currentPage = null;
+        pagerCardNumber = 0;
+        sheetVersion = -1;
+    }
+
+    // refresh: a stale copy is already on screen, so load quietly and keep it on errors
+    private void loadCurrentCardFromNetwork(String sheetName, int generation, boolean refresh) {
+        if (!refresh) {
+            showLoading(true);
+            resetCardState();
+        }
+
+        final int cardToLoad = currentCardNumber;
+
+        // Attaches to a pending prefetch batch if one already covers this card
+        cardLoader.loadCard(apiService, sheetName, cardToLoad, new SingleFlightCardLoader.CardListener() {
+            @Override
+            public void onCard(Flashcard card) {
+                outboxSyncer.applyPending(sheetName, card);
+                storeCard(sheetName, card);
+                if (!requestLifecycle.isCurrentSheet(sheetName)) {
+                    return; // Late response for a previous sheet
+                }
+                cardCache.put(cardToLoad, card);
+                if (!requestLifecycle.isCurrent(generation)) {
+                    return; // User navigated away while loading
+                }
+
+                showLoading(false);
+                boolean unchanged = refresh && currentFlashcard != null && hasSameContent(currentFlashcard, card);
+                currentFlashcard = card;
+                if (!unchanged) {
+                    displayFlashcard(currentFlashcard);
+                }
+                // Don't save progress here - only save when user navigates
+
+                // Prefetch more cards after first load
+                prefetchCards();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                if (!requestLifecycle.isCurrent(generation)) {
+                    return; // Superseded or cancelled load
+                }
+                if (refresh) {
+                    Log.w(TAG, "Could not refresh stale card " + cardToLoad + ", keeping stored copy", t);
+                    prefetchCards();
+                    return;
+                }
+                showLoading(false);
+                showError("Failed to load flashcard: " + t.getMessage());
+                Log.e(TAG, "Error loading flashcard", t);
+            }
+        });
+    }
+
+    private void prefetchCards() {
+        if (currentFlashcard == null) {
+            return;
+        }
+
+        // Calculate which cards to prefetch
+        int totalCards = currentFlashcard.getTotalCards();
+        PrefetchWindow window = prefetchPolicy.getWindow(currentCardNumber, totalCards);
 
         SharedPreferences preferences = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
         String sheetName = preferences.getString(KEY_SHEET_NAME, "Sheet1");
 
-        apiService.getFlashcard("getFlashcard", currentCardNumber, sheetName)
-                .enqueue(new Callback<Flashcard>() {
-                    @Override
-                    public void onResponse(Call<Flashcard> call, Response<Flashcard> response) {
-                        showLoading(false);
+        // Plan requests for the gaps that are not cached or already requested,
+        // including cards a single-card load is fetching right now
+        List<PrefetchScheduler.Range> ranges = prefetchScheduler.plan(currentCardNumber, window,
+                n -> cardCache.containsKey(n) || cardLoader.isInFlight(sheetName, n));
+        if (ranges.isEmpty()) {
+            return;
+        }
+
+        Log.d(TAG, "Prefetching " + ranges + " for window " + window + " - " + prefetchPolicy);
+        for (PrefetchScheduler.Range range : ranges) {
+            prefetchRange(sheetName, range);
+        }
+    }
 
-                        if (response.isSuccessful() && response.body() != null) {
-                            currentFlashcard = response.body();
-                            cardCache.put(currentCardNumber, currentFlashcard);
-                            displayFlashcard(currentFlashcard);
-                            // Don't save progress here - only save when user navigates
+    private void prefetchRange(String sheetName, PrefetchScheduler.Range range) {
+        final long requestStartMs = SystemClock.elapsedRealtime();
 
-                            // Prefetch more cards after first load
-                            prefetchCards();
-                        } else {
-                            showError("Failed to load flashcard");
+        // Deep prefetch skips pronunciation and extras; they are filled in when a card is shown
+        int distance = range.contains(currentCardNumber) ? 0
+                : Math.min(Math.abs(range.getFirstCard() - currentCardNumber),
+                        Math.abs(range.getLastCard() - currentCardNumber));
+        String fields = distance <= FULL_PREFETCH_DISTANCE ? null : LIGHT_FIELDS;
+
+        cardLoader.loadBatch(apiService, sheetName, range.getFirstCard(), range.getCount(), fields,
+                new SingleFlightCardLoader.BatchListener() {
+                    @Override
+                    public void onCard(Flashcard card) {
+                        // Usable as soon as it is decoded, before the rest of the batch arrives
+                        if (requestLifecycle.isCurrentSheet(sheetName)) {
+                            cacheCard(sheetName, card);
                         }
                     }
 
                     @Override
-                    public void onFailure(Call<Flashcard> call, Throwable t) {
-                        showLoading(false);
-                        showError("Network error: " + t.getMessage());
-                        Log.e(TAG, "Error loading flashcard", t);
+                    public void onBatch(List<Flashcard> cards) {
+                        // Cards are still valid for their own sheet in the persistent store
+                        DISK_EXECUTOR.execute(() -> cardStore.putCards(sheetName, cards));
+                        if (!requestLifecycle.isCurrentSheet(sheetName)) {
+                            Log.d(TAG, "Dropping prefetched " + range + " for previous sheet " + sheetName);
+                            return;
+                        }
+
+                        prefetchScheduler.complete(range);
+                        prefetchPolicy.onBatchLoaded(cards.size(), SystemClock.elapsedRealtime() - requestStartMs);
+                        Log.d(TAG, "Prefetched " + range + (fields != null ? " light" : "")
+                                + " (" + cards.size() + " cards). " + cardCache
+                                + ", calls started: " + cardLoader.getStartedCallCount()
+                                + ", duplicate calls saved: " + cardLoader.getSavedCallCount());
+
+                        // Fill any gaps that opened up while this request was in flight
+                        prefetchCards();
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        if (!requestLifecycle.isCurrentSheet(sheetName)) {
+                            return; // Cancelled by a sheet switch; the scheduler was already reset
+                        }
+                        prefetchScheduler.complete(range);
+                        Log.e(TAG, "Error prefetching cards " + range, t);
                     }
                 });
     }
 
-    private void prefetchCards() {
-        if (isPrefetching || currentFlashcard == null) {
-            return;
+    // A partial card never replaces a full cached copy of the same version. Queued changes are applied first.
+    private void cacheCard(String sheetName, Flashcard card) {
+        outboxSyncer.applyPending(sheetName, card);
+        if (card.isPartial()) {
+            Flashcard cached = cardCache.peek(card.getCurrentNum());
+            if (cached != null && !cached.isPartial() && cached.getVersion() == card.getVersion()) {
+                return;
+            }
         }
+        cardCache.put(card.getCurrentNum(), card);
+        if (isNearCurrentCard(card.getCurrentNum())) {
+            cardRenderer.layOut(card);
+        } else {
+            cardRenderer.prerender(card);
+        }
+        refreshPage(card.getCurrentNum());
+    }
 
-        // Calculate which cards to prefetch
-        int totalCards = currentFlashcard.getTotalCards();
-        int startCard = Math.max(1, currentCardNumber - 2); // Prefetch 2 cards behind
-        int endCard = Math.min(totalCards, currentCardNumber + PREFETCH_COUNT);
-
-        // Check if we need to prefetch
-        boolean needsPrefetch = false;
-        for (int i = startCard; i <= endCard; i++) {
-            if (!cardCache.containsKey(i)) {
-                needsPrefetch = true;
-                break;
+    // Precomputes the text of the cached cards around cardNumber, so showing and flipping them skips measuring
+    private void layOutAround(int cardNumber) {
+        for (int n = cardNumber - 1; n <= cardNumber + LAYOUT_AHEAD; n++) {
+            Flashcard card = cardCache.peek(n);
+            if (card != null) {
+                cardRenderer.layOut(card);
             }
         }
+    }
 
-        if (!needsPrefetch) {
-            return;
-        }
+    private boolean isNearCurrentCard(int cardNumber) {
+        return cardNumber >= currentCardNumber - 1 && cardNumber <= currentCardNumber + LAYOUT_AHEAD;
+    }
 
-        isPrefetching = true;
+    // Fetches the heavy fields of a partial card on screen and shows them when they arrive
+    private void loadMissingFields(Flashcard card) {
+        if (fillingCard == card) {
+            return; // Already being filled
+        }
+        fillingCard = card;
         SharedPreferences preferences = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
         String sheetName = preferences.getString(KEY_SHEET_NAME, "Sheet1");
 
-        Log.d(TAG, "Prefetching cards " + startCard + " to " + endCard);
-
-        apiService.getFlashcardBatch("getFlashcardBatch", startCard, endCard - startCard + 1, sheetName)
-                .enqueue(new Callback<FlashcardBatch>() {
+        cardLoader.loadFields(apiService, sheetName, card.getCurrentNum(), HEAVY_FIELDS,
+                new SingleFlightCardLoader.CardListener() {
                     @Override
-                    public void onResponse(Call<FlashcardBatch> call, Response<FlashcardBatch> response) {
-                        isPrefetching = false;
-
-                        if (response.isSuccessful() && response.body() != null) {
-                            List<Flashcard> cards = response.body().getCards();
-                            if (cards != null) {
-                                for (Flashcard card : cards) {
-                                    cardCache.put(card.getCurrentNum(), card);
-                                }
-                                Log.d(TAG, "Prefetched " + cards.size() + " cards. Cache size: " + cardCache.size());
-                            }
-                        } else {
-                            Log.w(TAG, "Failed to prefetch cards");
+                    public void onCard(Flashcard fields) {
+                        if (fillingCard == card) {
+                            fillingCard = null;
+                        }
+                        card.fillMissingFrom(fields);
+                        storeCard(sheetName, card);
+                        if (card == currentFlashcard) {
+                            bindCardExtras(card);
                         }
                     }
 
                     @Override
-                    public void onFailure(Call<FlashcardBatch> call, Throwable t) {
-                        isPrefetching = false;
-                        Log.e(TAG, "Error prefetching cards", t);
+                    public void onError(Throwable t) {
+                        if (fillingCard == card) {
+                            fillingCard = null;
+                        }
+                        Log.w(TAG, "Could not load pronunciation and extras of card " + card.getCurrentNum(), t);
                     }
                 });
     }
 
+    // Makes card current; redraws only if it differs from what is on screen, keeping the flip state
+    private void showCard(Flashcard card) {
+        boolean unchanged = currentFlashcard != null && !isEditMode
+                && currentFlashcard.getCurrentNum() == card.getCurrentNum()
+                && hasSameContent(currentFlashcard, card);
+        currentFlashcard = card;
+        if (!unchanged) {
+            displayFlashcard(card);
+        }
+    }
+
+    // True if re-displaying b instead of a would not change anything on screen
+    private static boolean hasSameContent(Flashcard a, Flashcard b) {
+        return a.getImportance() == b.getImportance()
+                && a.getTotalCards() == b.getTotalCards()
+                && Objects.equals(a.getFrontSide(), b.getFrontSide())
+                && Objects.equals(a.getBackSide(), b.getBackSide())
+                && Objects.equals(a.getFrontPronunciation(), b.getFrontPronunciation())
+                && Objects.equals(a.getBackPronunciation(), b.getBackPronunciation())
+                && Objects.equals(a.getFrontSideExtra(), b.getFrontSideExtra())
+                && Objects.equals(a.getBackSideExtra(), b.getBackSideExtra());
+    }
+
+    // Write-through to the persistent store on the disk thread
+    private void storeCard(String sheetName, Flashcard card) {
+        DISK_EXECUTOR.execute(() -> cardStore.putCard(sheetName, card));
+    }
+
     private void loadNextCard() {
         if (currentFlashcard != null && currentCardNumber >= currentFlashcard.getTotalCards()) {
             Toast.makeText(this, "No next card - you've reached the end", Toast.LENGTH_SHORT).show();
             return;
         }
         currentCardNumber++;
+        prefetchPolicy.onNavigate(currentCardNumber, SystemClock.elapsedRealtime());
         loadCurrentCard();
         saveCurrentProgress(); // Save only when user navigates
     }
@@ -526,6 +1130,7 @@ public class FlashcardActivity extends AppCompatActivity {
             return;
         }
         currentCardNumber--;
+        prefetchPolicy.onNavigate(currentCardNumber, SystemClock.elapsedRealtime());
         loadCurrentCard();
         saveCurrentProgress(); // Save only when user navigates
     }
@@ -533,79 +1138,24 @@ public class FlashcardActivity extends AppCompatActivity {
     private void displayFlashcard(Flashcard flashcard) {
         cardProgressText.setText("Card " + flashcard.getCurrentNum() + " of " + flashcard.getTotalCards());
 
-        // Parse HTML formatting for rich text (bold, colors, etc.)
-        frontSideText.setText(parseHtml(flashcard.getFrontSide()));
-        backSideText.setText(parseHtml(flashcard.getBackSide()));
-
-        // Set pronunciation text
-        String frontPronunciation = flashcard.getFrontPronunciation();
-        if (frontPronunciation != null && !frontPronunciation.isEmpty()) {
-            frontPronunciationText.setText(frontPronunciation);
-        } else {
-            frontPronunciationText.setText("");
-        }
-
-        String backPronunciation = flashcard.getBackPronunciation();
-        if (backPronunciation != null && !backPronunciation.isEmpty()) {
-            backPronunciationText.setText(backPronunciation);
-        } else {
-            backPronunciationText.setText("");
+        // The card's page, usually bound and laid out already while it was a neighbour
+        if (!showPage(flashcard.getCurrentNum(), flashcard.getTotalCards())) {
+            return; // Shown from onPageBound() once the page is laid out
         }
 
-        // Set extra text
-        String frontSideExtra = flashcard.getFrontSideExtra();
-        if (frontSideExtra != null && !frontSideExtra.isEmpty()) {
-            frontSideExtraText.setText(frontSideExtra);
-        } else {
-            frontSideExtraText.setText("");
-        }
+        // Rich text (bold, colors, etc.) and TTS text, usually rendered and measured in the background already
+        RenderedCard rendered = cardRenderer.get(flashcard);
+        cachedFrontText = rendered.getFrontSpeech();
+        cachedBackText = rendered.getBackSpeech();
 
-        String backSideExtra = flashcard.getBackSideExtra();
-        if (backSideExtra != null && !backSideExtra.isEmpty()) {
-            backSideExtraText.setText(backSideExtra);
-        } else {
-            backSideExtraText.setText("");
-        }
-
-        // Pre-parse and cache text for TTS (improves TTS response time)
-        cachedFrontText = stripHtmlTags(flashcard.getFrontSide());
-        cachedBackText = stripHtmlTags(flashcard.getBackSide());
-
-        // Reset card state
+        // Reset card state: front side up with its pronunciation (C column) and extra text (E column)
         isShowingFront = true;
-        isFlipping = false;
-        frontSideText.setVisibility(View.VISIBLE);
-        backSideText.setVisibility(View.GONE);
-        backSideExtraText.setVisibility(View.GONE);
-
-        // Show front pronunciation only (C column)
-        if (frontPronunciation != null && !frontPronunciation.isEmpty()) {
-            frontPronunciationText.setVisibility(View.VISIBLE);
-        } else {
-            frontPronunciationText.setVisibility(View.GONE);
+        cancelFlip();
+        currentPage.setText(rendered, cardRenderer);
+        currentPage.showFront();
+        if (flashcard.isPartial()) {
+            loadMissingFields(flashcard);
         }
-        backPronunciationText.setVisibility(View.GONE);
-
-        // Show front extra text only (E column)
-        if (frontSideExtra != null && !frontSideExtra.isEmpty()) {
-            frontSideExtraText.setVisibility(View.VISIBLE);
-        } else {
-            frontSideExtraText.setVisibility(View.GONE);
-        }
-
-        // Reset any animations for all text elements
-        frontSideText.setAlpha(1.0f);
-        backSideText.setAlpha(1.0f);
-        frontSideText.setRotationY(0);
-        backSideText.setRotationY(0);
-        frontPronunciationText.setAlpha(1.0f);
-        backPronunciationText.setAlpha(1.0f);
-        frontPronunciationText.setRotationY(0);
-        backPronunciationText.setRotationY(0);
-        frontSideExtraText.setAlpha(1.0f);
-        backSideExtraText.setAlpha(1.0f);
-        frontSideExtraText.setRotationY(0);
-        backSideExtraText.setRotationY(0);
 
         // Update importance level UI
         updateImportanceButtons(flashcard.getImportance());
@@ -624,6 +1174,28 @@ public class FlashcardActivity extends AppCompatActivity {
         }
     }
 
+    // Sets pronunciation and extra text and shows those of the visible side
+    private void bindCardExtras(Flashcard flashcard) {
+        if (!hasCurrentPage() || flashcard.getCurrentNum() != currentCardNumber) {
+            return; // Its page shows the card when it is laid out
+        }
+        currentPage.setText(cardRenderer.get(flashcard), cardRenderer);
+
+        if (isFlipping) {
+            // Let the running flip finish before showing the views of its target side
+            frontSideText.postDelayed(() -> {
+                if (flashcard == currentFlashcard) {
+                    bindCardExtras(flashcard);
+                }
+            }, 250);
+            return;
+        }
+        CardPageAdapter.PageHolder.showIfNotEmpty(frontPronunciationText, isShowingFront);
+        CardPageAdapter.PageHolder.showIfNotEmpty(backPronunciationText, !isShowingFront);
+        CardPageAdapter.PageHolder.showIfNotEmpty(frontSideExtraText, isShowingFront);
+        CardPageAdapter.PageHolder.showIfNotEmpty(backSideExtraText, !isShowingFront);
+    }
+
     private boolean shouldAutoPlay() {
         SharedPreferences preferences = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
         return preferences.getBoolean(KEY_TTS_AUTO_PLAY, false);
@@ -667,68 +1239,23 @@ public class FlashcardActivity extends AppCompatActivity {
         currentFlashcard.setImportance(level);
         updateImportanceButtons(level);
 
-        // Update in cache
-        cardCache.put(currentCardNumber, currentFlashcard);
-
-        // Save to Google Sheets via API
         SharedPreferences preferences = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
         String sheetName = preferences.getString(KEY_SHEET_NAME, "Sheet1");
 
-        apiService.saveImportance("saveImportance", currentCardNumber, level, sheetName)
-                .enqueue(new Callback<com.google.gson.JsonObject>() {
-                    @Override
-                    public void onResponse(Call<com.google.gson.JsonObject> call, Response<com.google.gson.JsonObject> response) {
-                        if (response.isSuccessful()) {
-                            Log.d(TAG, "Importance saved successfully");
-                            Toast.makeText(FlashcardActivity.this, "Importance set to " + level, Toast.LENGTH_SHORT).show();
-                        } else {
-                            Log.w(TAG, "Failed to save importance");
-                            Toast.makeText(FlashcardActivity.this, "Failed to save importance", Toast.LENGTH_SHORT).show();
-                        }
-                    }
+        // Update in cache and local store
+        cardCache.put(currentCardNumber, currentFlashcard);
+        storeCard(sheetName, currentFlashcard);
 
-                    @Override
-                    public void onFailure(Call<com.google.gson.JsonObject> call, Throwable t) {
-                        Log.e(TAG, "Error saving importance", t);
-                        Toast.makeText(FlashcardActivity.this, "Error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
-                    }
-                });
+        // Queue for Google Sheets; the outbox retries until it is saved
+        outboxSyncer.enqueue(PendingMutation.importance(sheetName, currentCardNumber, level));
+        Toast.makeText(this, "Importance set to " + level, Toast.LENGTH_SHORT).show();
     }
 
-    private Spanned parseHtml(String html) {
-        if (html == null || html.isEmpty()) {
-            return Html.fromHtml("", Html.FROM_HTML_MODE_COMPACT);
-        }
-
-        Log.d(TAG, "Parsing HTML: " + html);
-
-        // Convert line breaks to <br> tags
-        String formatted = html.replace("\n", "<br>");
-
-        // Convert CSS underline styles to <u> tags for Android's HTML parser
-        // Google Sheets may send: <span style="text-decoration: underline;">text</span>
-        // Match the entire span element with underline and wrap content in <u> tags
-        formatted = formatted.replaceAll(
-            "<span style=\"([^\"]*)text-decoration:\\s*underline([^\"]*)\">([^<]*)</span>",
-            "<u>$3</u>"
-        );
-        formatted = formatted.replaceAll(
-            "<span style=\"([^\"]*)text-decoration-line:\\s*underline([^\"]*)\">([^<]*)</span>",
-            "<u>$3</u>"
-        );
-
-        Spanned result;
-        if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.N) {
-            result = Html.fromHtml(formatted, Html.FROM_HTML_MODE_COMPACT);
-        } else {
-            result = Html.fromHtml(formatted);
+    private void flipCard() {
+        if (!hasCurrentPage()) {
+            return; // No card on screen yet
         }
 
-        Log.d(TAG, "Parsed result: " + result.toString());
-        return result;
-    }
-
-    private void flipCard() {
         // Prevent multiple simultaneous flips
         if (isFlipping) {
             Log.d(TAG, "Already flipping, ignoring swipe");
@@ -743,163 +1270,148 @@ public class FlashcardActivity extends AppCompatActivity {
             stopTTS();
         }
 
-        // Flip with animation
-        final float scale = getResources().getDisplayMetrics().density;
-        flashcardContainer.setCameraDistance(8000 * scale);
+        // Flip the views of this page; navigating away cancels the flip through cancelFlip()
+        final CardPageAdapter.PageHolder page = currentPage;
+        final Flashcard card = currentFlashcard;
+        flipPage = page;
 
-        AnimatorSet frontAnim;
-        AnimatorSet backAnim;
-        AnimatorSet frontPronunciationAnim;
-        AnimatorSet backPronunciationAnim;
-        AnimatorSet frontExtraAnim;
-        AnimatorSet backExtraAnim;
+        final float scale = getResources().getDisplayMetrics().density;
+        page.container.setCameraDistance(8000 * scale);
 
         if (isShowingFront) {
             // Flip from front to back
-            frontAnim = (AnimatorSet) AnimatorInflater.loadAnimator(this, R.animator.card_flip_out);
-            backAnim = (AnimatorSet) AnimatorInflater.loadAnimator(this, R.animator.card_flip_in);
-
-            frontAnim.setTarget(frontSideText);
-            backAnim.setTarget(backSideText);
-
-            frontAnim.start();
-            backAnim.start();
+            startFlipAnimator(R.animator.card_flip_out, page.frontSideText);
+            startFlipAnimator(R.animator.card_flip_in, page.backSideText);
 
-            backSideText.setVisibility(View.VISIBLE);
+            page.backSideText.setVisibility(View.VISIBLE);
 
             // Animate pronunciation text
-            frontPronunciationAnim = (AnimatorSet) AnimatorInflater.loadAnimator(this, R.animator.card_flip_out);
-            frontPronunciationAnim.setTarget(frontPronunciationText);
-            frontPronunciationAnim.start();
-
-            if (currentFlashcard != null && currentFlashcard.getBackPronunciation() != null
-                    && !currentFlashcard.getBackPronunciation().isEmpty()) {
-                backPronunciationText.setVisibility(View.VISIBLE);
-                backPronunciationAnim = (AnimatorSet) AnimatorInflater.loadAnimator(this, R.animator.card_flip_in);
-                backPronunciationAnim.setTarget(backPronunciationText);
-                backPronunciationAnim.start();
+            startFlipAnimator(R.animator.card_flip_out, page.frontPronunciationText);
+
+            if (card != null && card.getBackPronunciation() != null && !card.getBackPronunciation().isEmpty()) {
+                page.backPronunciationText.setVisibility(View.VISIBLE);
+                startFlipAnimator(R.animator.card_flip_in, page.backPronunciationText);
             }
 
             // Animate extra text
-            frontExtraAnim = (AnimatorSet) AnimatorInflater.loadAnimator(this, R.animator.card_flip_out);
-            frontExtraAnim.setTarget(frontSideExtraText);
-            frontExtraAnim.start();
-
-            if (currentFlashcard != null && currentFlashcard.getBackSideExtra() != null
-                    && !currentFlashcard.getBackSideExtra().isEmpty()) {
-                backSideExtraText.setVisibility(View.VISIBLE);
-                backExtraAnim = (AnimatorSet) AnimatorInflater.loadAnimator(this, R.animator.card_flip_in);
-                backExtraAnim.setTarget(backSideExtraText);
-                backExtraAnim.start();
+            startFlipAnimator(R.animator.card_flip_out, page.frontSideExtraText);
+
+            if (card != null && card.getBackSideExtra() != null && !card.getBackSideExtra().isEmpty()) {
+                page.backSideExtraText.setVisibility(View.VISIBLE);
+                startFlipAnimator(R.animator.card_flip_in, page.backSideExtraText);
             }
 
-            frontSideText.postDelayed(() -> {
-                frontSideText.setVisibility(View.GONE);
-                frontPronunciationText.setVisibility(View.GONE);
-                frontSideExtraText.setVisibility(View.GONE);
+            flipEnd = () -> {
+                if (!finishFlip(page)) {
+                    return;
+                }
+                page.frontSideText.setVisibility(View.GONE);
+                page.frontPronunciationText.setVisibility(View.GONE);
+                page.frontSideExtraText.setVisibility(View.GONE);
 
-                if (currentFlashcard == null || currentFlashcard.getBackPronunciation() == null
-                        || currentFlashcard.getBackPronunciation().isEmpty()) {
-                    backPronunciationText.setVisibility(View.GONE);
+                if (card == null || card.getBackPronunciation() == null || card.getBackPronunciation().isEmpty()) {
+                    page.backPronunciationText.setVisibility(View.GONE);
                 }
-                if (currentFlashcard == null || currentFlashcard.getBackSideExtra() == null
-                        || currentFlashcard.getBackSideExtra().isEmpty()) {
-                    backSideExtraText.setVisibility(View.GONE);
+                if (card == null || card.getBackSideExtra() == null || card.getBackSideExtra().isEmpty()) {
+                    page.backSideExtraText.setVisibility(View.GONE);
                 }
 
-                isFlipping = false;
-
                 // Auto-play back side after flip animation
                 if (shouldAutoPlay()) {
                     speakCurrentSide();
                 }
-            }, 200);
+            };
 
             isShowingFront = false;
         } else {
             // Flip from back to front
-            frontAnim = (AnimatorSet) AnimatorInflater.loadAnimator(this, R.animator.card_flip_in);
-            backAnim = (AnimatorSet) AnimatorInflater.loadAnimator(this, R.animator.card_flip_out);
-
-            frontAnim.setTarget(frontSideText);
-            backAnim.setTarget(backSideText);
+            startFlipAnimator(R.animator.card_flip_out, page.backSideText);
+            startFlipAnimator(R.animator.card_flip_in, page.frontSideText);
 
-            backAnim.start();
-            frontAnim.start();
-
-            frontSideText.setVisibility(View.VISIBLE);
+            page.frontSideText.setVisibility(View.VISIBLE);
 
             // Animate pronunciation text
-            backPronunciationAnim = (AnimatorSet) AnimatorInflater.loadAnimator(this, R.animator.card_flip_out);
-            backPronunciationAnim.setTarget(backPronunciationText);
-            backPronunciationAnim.start();
-
-            if (currentFlashcard != null && currentFlashcard.getFrontPronunciation() != null
-                    && !currentFlashcard.getFrontPronunciation().isEmpty()) {
-                frontPronunciationText.setVisibility(View.VISIBLE);
-                frontPronunciationAnim = (AnimatorSet) AnimatorInflater.loadAnimator(this, R.animator.card_flip_in);
-                frontPronunciationAnim.setTarget(frontPronunciationText);
-                frontPronunciationAnim.start();
+            startFlipAnimator(R.animator.card_flip_out, page.backPronunciationText);
+
+            if (card != null && card.getFrontPronunciation() != null && !card.getFrontPronunciation().isEmpty()) {
+                page.frontPronunciationText.setVisibility(View.VISIBLE);
+                startFlipAnimator(R.animator.card_flip_in, page.frontPronunciationText);
             }
 
             // Animate extra text
-            backExtraAnim = (AnimatorSet) AnimatorInflater.loadAnimator(this, R.animator.card_flip_out);
-            backExtraAnim.setTarget(backSideExtraText);
-            backExtraAnim.start();
-
-            if (currentFlashcard != null && currentFlashcard.getFrontSideExtra() != null
-                    && !currentFlashcard.getFrontSideExtra().isEmpty()) {
-                frontSideExtraText.setVisibility(View.VISIBLE);
-                frontExtraAnim = (AnimatorSet) AnimatorInflater.loadAnimator(this, R.animator.card_flip_in);
-                frontExtraAnim.setTarget(frontSideExtraText);
-                frontExtraAnim.start();
+            startFlipAnimator(R.animator.card_flip_out, page.backSideExtraText);
+
+            if (card != null && card.getFrontSideExtra() != null && !card.getFrontSideExtra().isEmpty()) {
+                page.frontSideExtraText.setVisibility(View.VISIBLE);
+                startFlipAnimator(R.animator.card_flip_in, page.frontSideExtraText);
             }
 
-            backSideText.postDelayed(() -> {
-                backSideText.setVisibility(View.GONE);
-                backPronunciationText.setVisibility(View.GONE);
-                backSideExtraText.setVisibility(View.GONE);
+            flipEnd = () -> {
+                if (!finishFlip(page)) {
+                    return;
+                }
+                page.backSideText.setVisibility(View.GONE);
+                page.backPronunciationText.setVisibility(View.GONE);
+                page.backSideExtraText.setVisibility(View.GONE);
 
-                if (currentFlashcard == null || currentFlashcard.getFrontPronunciation() == null
-                        || currentFlashcard.getFrontPronunciation().isEmpty()) {
-                    frontPronunciationText.setVisibility(View.GONE);
+                if (card == null || card.getFrontPronunciation() == null || card.getFrontPronunciation().isEmpty()) {
+                    page.frontPronunciationText.setVisibility(View.GONE);
                 }
-                if (currentFlashcard == null || currentFlashcard.getFrontSideExtra() == null
-                        || currentFlashcard.getFrontSideExtra().isEmpty()) {
-                    frontSideExtraText.setVisibility(View.GONE);
+                if (card == null || card.getFrontSideExtra() == null || card.getFrontSideExtra().isEmpty()) {
+                    page.frontSideExtraText.setVisibility(View.GONE);
                 }
 
-                isFlipping = false;
-
                 // Auto-play front side after flip animation
                 if (shouldAutoPlay()) {
                     speakCurrentSide();
                 }
-            }, 200);
+            };
 
             isShowingFront = true;
         }
+        page.container.postDelayed(flipEnd, 200);
+    }
+
+    private void startFlipAnimator(int animatorRes, View target) {
+        AnimatorSet animator = (AnimatorSet) AnimatorInflater.loadAnimator(this, animatorRes);
+        animator.setTarget(target);
+        animator.start();
+        flipAnimators.add(animator);
+    }
+
+    // Ends the flip of a page; false if the user has moved to another card since
+    private boolean finishFlip(CardPageAdapter.PageHolder page) {
+        flipEnd = null;
+        flipAnimators.clear();
+        flipPage = null;
+        isFlipping = false;
+        return page == currentPage && page.cardNumber == currentCardNumber;
+    }
+
+    // Stops a running flip and turns its page front side up again
+    private void cancelFlip() {
+        isFlipping = false;
+        if (flipPage == null) {
+            return;
+        }
+        if (flipEnd != null) {
+            flipPage.container.removeCallbacks(flipEnd);
+            flipEnd = null;
+        }
+        for (AnimatorSet animator : flipAnimators) {
+            animator.cancel();
+        }
+        flipAnimators.clear();
+        flipPage.showFront();
+        flipPage = null;
     }
 
     private void resetCardState() {
         isShowingFront = true;
-        isFlipping = false;
-        frontSideText.setVisibility(View.VISIBLE);
-        backSideText.setVisibility(View.GONE);
-
-        // Reset any animations for all text elements
-        frontSideText.setAlpha(1.0f);
-        backSideText.setAlpha(1.0f);
-        frontSideText.setRotationY(0);
-        backSideText.setRotationY(0);
-        frontPronunciationText.setAlpha(1.0f);
-        backPronunciationText.setAlpha(1.0f);
-        frontPronunciationText.setRotationY(0);
-        backPronunciationText.setRotationY(0);
-        frontSideExtraText.setAlpha(1.0f);
-        backSideExtraText.setAlpha(1.0f);
-        frontSideExtraText.setRotationY(0);
-        backSideExtraText.setRotationY(0);
+        cancelFlip();
+        if (currentPage != null) {
+            currentPage.showFront();
+        }
     }
 
     private void saveCurrentProgress() {
@@ -913,45 +1425,15 @@ public class FlashcardActivity extends AppCompatActivity {
             Log.w(TAG, "Card number " + currentCardNumber + " exceeds total cards " + currentFlashcard.getTotalCards());
         }
 
+        // Saved locally right away; the Google Sheets write is debounced
         SharedPreferences preferences = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
-        preferences.edit()
-                .putInt(KEY_CARD_NUMBER, currentCardNumber)
-                .apply();
-
-        Log.d(TAG, "Saved progress locally: Card=" + currentCardNumber);
-
-        // Also save to Google Sheets with sheet name (only if API service is available)
-        if (apiService == null) {
-            Log.w(TAG, "API service not available, skipping Google Sheets sync");
-            return;
-        }
-
         String sheetName = preferences.getString(KEY_SHEET_NAME, "Sheet1");
-        final int cardToSave = currentCardNumber; // Capture value to avoid race condition
-
-        Log.d(TAG, "Sending to Google Sheets - Sheet: " + sheetName + ", Card: " + cardToSave);
-
-        apiService.saveProgress("saveProgress", cardToSave, sheetName)
-                .enqueue(new Callback<com.google.gson.JsonObject>() {
-                    @Override
-                    public void onResponse(Call<com.google.gson.JsonObject> call, Response<com.google.gson.JsonObject> response) {
-                        if (response.isSuccessful()) {
-                            Log.d(TAG, "Progress saved to Google Sheets for " + sheetName + ": Card=" + cardToSave);
-                        } else {
-                            Log.w(TAG, "Failed to save progress to Google Sheets: " + response.code());
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Call<com.google.gson.JsonObject> call, Throwable t) {
-                        Log.e(TAG, "Error saving progress to Google Sheets", t);
-                    }
-                });
+        progressSync.save(sheetName, currentCardNumber);
     }
 
     private void showLoading(boolean show) {
         progressBar.setVisibility(show ? View.VISIBLE : View.GONE);
-        flashcardContainer.setVisibility(show ? View.GONE : View.VISIBLE);
+        cardPager.setVisibility(show ? View.INVISIBLE : View.VISIBLE); // Pages keep laying out behind the spinner
     }
 
     private void showError(String message) {
@@ -1379,11 +1861,6 @@ public class FlashcardActivity extends AppCompatActivity {
         }
     }
 
-    private String stripHtmlTags(String html) {
-        if (html == null || html.isEmpty()) return "";
-        return Html.fromHtml(html, Html.FROM_HTML_MODE_COMPACT).toString().trim();
-    }
-
     // ==================== Edit Mode Methods ====================
 
     private void toggleEditMode() {
@@ -1395,7 +1872,7 @@ public class FlashcardActivity extends AppCompatActivity {
     }
 
     private void enterEditMode() {
-        if (currentFlashcard == null) {
+        if (currentFlashcard == null || !hasCurrentPage()) {
             Toast.makeText(this, "No card loaded", Toast.LENGTH_SHORT).show();
             return;
         }
@@ -1444,11 +1921,11 @@ public class FlashcardActivity extends AppCompatActivity {
             importanceLabel.setVisibility(View.GONE);
         }
 
-        // Adjust flashcard container to be above editControls
+        // Adjust card pager to be above editControls
         android.widget.RelativeLayout.LayoutParams params =
-            (android.widget.RelativeLayout.LayoutParams) flashcardContainer.getLayoutParams();
+            (android.widget.RelativeLayout.LayoutParams) cardPager.getLayoutParams();
         params.addRule(android.widget.RelativeLayout.ABOVE, R.id.editControls);
-        flashcardContainer.setLayoutParams(params);
+        cardPager.setLayoutParams(params);
 
         // Switch to EditText for the current side
         if (isShowingFront) {
@@ -1607,11 +2084,11 @@ public class FlashcardActivity extends AppCompatActivity {
             importanceLabel.setVisibility(View.VISIBLE);
         }
 
-        // Restore flashcard container to be above audioControls
+        // Restore card pager to be above audioControls
         android.widget.RelativeLayout.LayoutParams params =
-            (android.widget.RelativeLayout.LayoutParams) flashcardContainer.getLayoutParams();
+            (android.widget.RelativeLayout.LayoutParams) cardPager.getLayoutParams();
         params.addRule(android.widget.RelativeLayout.ABOVE, R.id.audioControls);
-        flashcardContainer.setLayoutParams(params);
+        cardPager.setLayoutParams(params);
 
         // Switch back to TextView
         if (isShowingFront) {
@@ -1694,8 +2171,6 @@ public class FlashcardActivity extends AppCompatActivity {
         // Hide keyboard
         hideKeyboard();
 
-        showLoading(true);
-
         // Get the edited text
         android.widget.EditText editText = isShowingFront ? frontSideEditText : backSideEditText;
         android.text.Spanned spannedText = (android.text.Spanned) editText.getText();
@@ -1706,47 +2181,30 @@ public class FlashcardActivity extends AppCompatActivity {
 
         Log.d(TAG, "Saving " + side + " side HTML: " + htmlContent);
 
-        // Save to Google Sheets
         SharedPreferences preferences = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
         String sheetName = preferences.getString(KEY_SHEET_NAME, "Sheet1");
 
-        apiService.saveCardContent("saveCardContent", currentCardNumber, sheetName, side, htmlContent)
-                .enqueue(new Callback<com.google.gson.JsonObject>() {
-                    @Override
-                    public void onResponse(Call<com.google.gson.JsonObject> call, Response<com.google.gson.JsonObject> response) {
-                        showLoading(false);
-
-                        if (response.isSuccessful()) {
-                            Log.d(TAG, "Card content saved successfully");
-                            Toast.makeText(FlashcardActivity.this, "Saved to Google Sheets", Toast.LENGTH_SHORT).show();
-
-                            // Update current flashcard
-                            if (isShowingFront) {
-                                currentFlashcard.setFrontSide(htmlContent);
-                                frontSideText.setText(parseHtml(htmlContent));
-                            } else {
-                                currentFlashcard.setBackSide(htmlContent);
-                                backSideText.setText(parseHtml(htmlContent));
-                            }
+        // Update current flashcard
+        if (isShowingFront) {
+            currentFlashcard.setFrontSide(htmlContent);
+        } else {
+            currentFlashcard.setBackSide(htmlContent);
+        }
+        RenderedCard rendered = cardRenderer.get(currentFlashcard);
+        currentPage.setText(rendered, cardRenderer);
+        cachedFrontText = rendered.getFrontSpeech();
+        cachedBackText = rendered.getBackSpeech();
 
-                            // Update cache
-                            cardCache.put(currentCardNumber, currentFlashcard);
+        // Update cache and local store
+        cardCache.put(currentCardNumber, currentFlashcard);
+        storeCard(sheetName, currentFlashcard);
 
-                            // Exit edit mode
-                            cancelEdit();
-                        } else {
-                            Log.w(TAG, "Failed to save card content");
-                            Toast.makeText(FlashcardActivity.this, "Failed to save", Toast.LENGTH_SHORT).show();
-                        }
-                    }
+        // Queue for Google Sheets; the outbox retries until it is saved
+        outboxSyncer.enqueue(PendingMutation.content(sheetName, currentCardNumber, side, htmlContent));
+        Toast.makeText(this, "Saved", Toast.LENGTH_SHORT).show();
 
-                    @Override
-                    public void onFailure(Call<com.google.gson.JsonObject> call, Throwable t) {
-                        showLoading(false);
-                        Log.e(TAG, "Error saving card content", t);
-                        Toast.makeText(FlashcardActivity.this, "Error: " + t.getMessage(), Toast.LENGTH_SHORT).show();
-                    }
-                });
+        // Exit edit mode
+        cancelEdit();
     }
 
     private void hideKeyboard() {
@@ -1838,8 +2296,9 @@ public class FlashcardActivity extends AppCompatActivity {
         if (isSpeaking) {
             stopTTS();
         }
-        // Save progress when leaving the app
+        // Save progress when leaving the app, and send it without waiting for the debounce
         saveCurrentProgress();
+        progressSync.flush();
     }
 
     @Override
@@ -1847,6 +2306,7 @@ public class FlashcardActivity extends AppCompatActivity {
         super.onDestroy();
         releaseMediaRecorder();
         releaseMediaPlayer();
+        progressSync.flush();
         if (textToSpeech != null) {
             textToSpeech.stop();
             textToSpeech.shutdown();
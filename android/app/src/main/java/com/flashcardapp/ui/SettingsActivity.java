@@ -24,6 +24,9 @@ import com.flashcardapp.models.SheetList;
 import com.flashcardapp.models.StartingInfo;
 import com.flashcardapp.network.ApiClient;
 import com.flashcardapp.network.QuizApiService;
+import com.flashcardapp.sync.DeckDownloader;
+import com.flashcardapp.sync.OutboxSyncer;
+import com.flashcardapp.sync.ProgressSync;
 import com.google.android.material.button.MaterialButton;
 
 import java.util.List;
@@ -47,7 +50,9 @@ public class SettingsActivity extends AppCompatActivity {
     private MaterialButton saveApiUrlButton;
     private TextView currentSheetText;
     private TextView currentCardText;
+    private TextView pendingChangesText;
     private MaterialButton selectSheetButton;
+    private MaterialButton downloadDeckButton;
     private MaterialButton jumpToCardButton;
     private MaterialButton backToFlashcardsButton;
     private Spinner ttsLanguageSpinner;
@@ -58,6 +63,8 @@ public class SettingsActivity extends AppCompatActivity {
     private SharedPreferences prefs;
     private QuizApiService apiService;
     private TextToSpeech textToSpeech;
+    private DeckDownloader deckDownloader;
+    private final OutboxSyncer.Listener pendingChangesListener = this::updatePendingChangesDisplay;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -74,6 +81,8 @@ public class SettingsActivity extends AppCompatActivity {
         setupTtsLanguageSpinner();
         loadTtsSettings();
         setupListeners();
+
+        OutboxSyncer.getInstance(this).addListener(pendingChangesListener);
     }
 
     private void initializeViews() {
@@ -82,7 +91,9 @@ public class SettingsActivity extends AppCompatActivity {
         saveApiUrlButton = findViewById(R.id.saveApiUrlButton);
         currentSheetText = findViewById(R.id.currentSheetText);
         currentCardText = findViewById(R.id.currentCardText);
+        pendingChangesText = findViewById(R.id.pendingChangesText);
         selectSheetButton = findViewById(R.id.selectSheetButton);
+        downloadDeckButton = findViewById(R.id.downloadDeckButton);
         jumpToCardButton = findViewById(R.id.jumpToCardButton);
         backToFlashcardsButton = findViewById(R.id.backToFlashcardsButton);
         ttsLanguageSpinner = findViewById(R.id.ttsLanguageSpinner);
@@ -109,6 +120,14 @@ public class SettingsActivity extends AppCompatActivity {
         fetchCurrentProgress(currentSheet);
     }
 
+    private void updatePendingChangesDisplay(int pendingCount) {
+        if (pendingCount == 0) {
+            pendingChangesText.setText("All changes synced");
+        } else {
+            pendingChangesText.setText("Pending changes: " + pendingCount + " (tap to sync now)");
+        }
+    }
+
     private void fetchCurrentProgress(String sheetName) {
         if (apiService == null) {
             currentCardText.setText("Progress: API not configured");
@@ -148,7 +167,9 @@ public class SettingsActivity extends AppCompatActivity {
         saveApiUrlButton.setOnClickListener(v -> saveApiUrl());
         testConnectionButton.setOnClickListener(v -> testConnection());
         selectSheetButton.setOnClickListener(v -> fetchAndShowSheetSelection());
+        downloadDeckButton.setOnClickListener(v -> downloadDeck());
         jumpToCardButton.setOnClickListener(v -> showJumpToCardDialog());
+        pendingChangesText.setOnClickListener(v -> OutboxSyncer.getInstance(this).syncNow());
         backToFlashcardsButton.setOnClickListener(v -> finish());
 
         // TTS speed SeekBar listener
@@ -185,6 +206,45 @@ public class SettingsActivity extends AppCompatActivity {
         });
     }
 
+    private void downloadDeck() {
+        if (apiService == null) {
+            Toast.makeText(this, "API not configured", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        String sheetName = prefs.getString(KEY_SHEET_NAME, "Sheet1");
+        downloadDeckButton.setEnabled(false);
+        downloadDeckButton.setText("Downloading...");
+
+        deckDownloader = new DeckDownloader(this);
+        deckDownloader.download(sheetName, new DeckDownloader.Listener() {
+            @Override
+            public void onProgress(int chunksDone, int chunkCount) {
+                downloadDeckButton.setText("Downloading... " + chunksDone + "/" + chunkCount);
+            }
+
+            @Override
+            public void onComplete(int cardCount) {
+                resetDownloadButton();
+                Toast.makeText(SettingsActivity.this,
+                        "✓ " + cardCount + " cards of " + sheetName + " available offline",
+                        Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onError(String message) {
+                resetDownloadButton();
+                Log.e(TAG, "Deck download failed: " + message);
+                Toast.makeText(SettingsActivity.this, "Download failed: " + message, Toast.LENGTH_LONG).show();
+            }
+        });
+    }
+
+    private void resetDownloadButton() {
+        downloadDeckButton.setEnabled(true);
+        downloadDeckButton.setText("Download Deck for Offline");
+    }
+
     private void saveApiUrl() {
         String url = apiUrlEditText.getText().toString().trim();
 
@@ -364,29 +424,13 @@ public class SettingsActivity extends AppCompatActivity {
                             return;
                         }
 
-                        // Save to SharedPreferences
-                        prefs.edit().putInt(KEY_CARD_NUMBER, cardNumber).apply();
+                        // Save to SharedPreferences and Google Sheets right away
+                        String sheetName = prefs.getString(KEY_SHEET_NAME, "Sheet1");
+                        ProgressSync progressSync = ProgressSync.getInstance(this);
+                        progressSync.save(sheetName, cardNumber);
+                        progressSync.flush();
                         currentCardText.setText("Progress: Card " + cardNumber);
 
-                        // Save to Google Sheets (if API is configured)
-                        if (apiService != null) {
-                            String sheetName = prefs.getString(KEY_SHEET_NAME, "Sheet1");
-                            apiService.saveProgress("saveProgress", cardNumber, sheetName)
-                                    .enqueue(new Callback<com.google.gson.JsonObject>() {
-                                        @Override
-                                        public void onResponse(Call<com.google.gson.JsonObject> call, Response<com.google.gson.JsonObject> response) {
-                                            if (response.isSuccessful()) {
-                                                Log.d(TAG, "Jump to card saved to Google Sheets");
-                                            }
-                                        }
-
-                                        @Override
-                                        public void onFailure(Call<com.google.gson.JsonObject> call, Throwable t) {
-                                            Log.e(TAG, "Failed to save jump to Google Sheets", t);
-                                        }
-                                    });
-                        }
-
                         Toast.makeText(this, "Jumped to Card " + cardNumber, Toast.LENGTH_SHORT).show();
                     } catch (NumberFormatException e) {
                         Toast.makeText(this, "Invalid card number", Toast.LENGTH_SHORT).show();
@@ -526,6 +570,10 @@ public class SettingsActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        OutboxSyncer.getInstance(this).removeListener(pendingChangesListener);
+        if (deckDownloader != null) {
+            deckDownloader.cancel();
+        }
         if (textToSpeech != null) {
             textToSpeech.stop();
             textToSpeech.shutdown();
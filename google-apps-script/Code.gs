@@ -16,6 +16,10 @@
  * 7. Set "Who has access" to "Anyone" (or "Anyone with the link")
  * 8. Click Deploy and copy the Web app URL
  * 9. Paste that URL into ApiClient.java BASE_URL
+ * 10. (Required) Run installTriggers() once from the editor. Edits made in
+ *     the sheet itself only bump the sheet version and reach the change log
+ *     through its triggers; without them the app never learns of those edits
+ *     from versions or the change feed, so it refetches cards on every resume.
  */
 
 // Configuration - Update these values
@@ -28,6 +32,7 @@ const BACK_PRONUNCIATION_COLUMN = 4; // Column D - Pronunciation for back side
 const FRONT_EXTRA_COLUMN = 5; // Column E
 const BACK_EXTRA_COLUMN = 6;  // Column F
 const FIRST_ROW = 2;    // Start from row 2 (assuming row 1 has headers)
+const CARD_COLUMN_COUNT = 7; // Columns A-G hold one card
 
 // Settings sheet for tracking progress (optional)
 const SETTINGS_SHEET = "Settings";
@@ -35,10 +40,58 @@ const SETTINGS_SHEET_NAME_COLUMN = 1; // Column A: Sheet name
 const SETTINGS_CARD_NUMBER_COLUMN = 2; // Column B: Current card number
 const SETTINGS_FIRST_ROW = 2; // Start from row 2 (row 1 has headers)
 
+// Cached card counts (CacheService entries live at most 6 hours). Without
+// the installTriggers() triggers nothing invalidates them, so they are
+// recounted once they are older than CARD_COUNT_UNTRIGGERED_SECONDS.
+const CARD_COUNT_CACHE_SECONDS = 21600;
+const CARD_COUNT_UNTRIGGERED_SECONDS = 300;
+const CARD_COUNT_KEY_PREFIX = "cardCount:";
+
+// Whether installTriggers() has been run, rechecked every few minutes
+const TRIGGERS_INSTALLED_KEY = "triggersInstalled";
+const TRIGGERS_CHECK_SECONDS = 600;
+
+// Rendered HTML cache: CacheService values are limited to 100KB, so long
+// cells are split into chunks (chars, sized for up to 3 UTF-8 bytes each)
+const HTML_CACHE_SECONDS = 21600;
+const HTML_CACHE_CHUNK_CHARS = 30000;
+const HTML_EPOCH_KEY = "htmlEpoch";
+const MAX_CELLS_TO_INVALIDATE = 200;
+
+// Whole-sheet snapshots for offline download, stored in CacheService chunks
+const SHEET_VERSION_KEY_PREFIX = "sheetVersion:";
+const SNAPSHOT_CACHE_SECONDS = 21600;
+const SNAPSHOT_CHUNK_CHARS = 30000;
+const SNAPSHOT_READ_ROWS = 1000;
+
+// Hidden change log: one row per changed card (Sheet, Version, Card, Fields);
+// card 0 marks a structural change that clients can only follow by resyncing
+const CHANGE_LOG_SHEET = "_ChangeLog";
+const CHANGE_LOG_MAX_ROWS = 5000;
+const CHANGE_LOG_PRUNE_ROWS = 1000;
+const CHANGE_LOG_FLOOR_KEY_PREFIX = "changeLogFloor:";
+const MAX_LOGGED_ROWS_PER_EDIT = 500;
+const MAX_CHANGES_PER_RESPONSE = 200;
+const CARD_FIELDS = ["frontSide", "backSide", "frontPronunciation", "backPronunciation",
+                     "frontSideExtra", "backSideExtra", "importance"]; // Columns A-G
+
+// Cards returned around the saved position by the bootstrap action
+const BOOTSTRAP_CARDS_BEHIND = 2;
+const BOOTSTRAP_CARDS_AHEAD = 10;
+
+// Opt-in compression (encoding=gzip): ContentService cannot set Content-Encoding,
+// so the gzipped JSON is sent base64-encoded inside a small envelope
+const GZIP_ENCODING = "gzip+base64";
+const GZIP_MIN_CHARS = 1024; // Smaller responses are sent as they are
+
 /**
  * Main entry point for all API requests
  */
 function doGet(e) {
+  return encodeResponse(e, handleGet(e));
+}
+
+function handleGet(e) {
   const action = e.parameter.action;
 
   try {
@@ -51,6 +104,14 @@ function doGet(e) {
         return getFlashcardStartingInfo(e);
       case 'getAvailableSheets':
         return getAvailableSheets(e);
+      case 'getSheetSnapshot':
+        return getSheetSnapshot(e);
+      case 'getSheetVersion':
+        return getSheetVersionInfo(e);
+      case 'getChangesSince':
+        return getChangesSince(e);
+      case 'bootstrap':
+        return bootstrap(e);
       default:
         return errorResponse('Unknown action: ' + action);
     }
@@ -64,6 +125,7 @@ function doGet(e) {
  * Get a specific flashcard by card number
  */
 function getFlashcard(e) {
+  const startTime = Date.now();
   const cardNumber = parseInt(e.parameter.cardNumber);
   const sheetName = e.parameter.sheetName || SHEET_NAME;
 
@@ -76,45 +138,18 @@ function getFlashcard(e) {
     return errorResponse('Sheet not found: ' + sheetName);
   }
 
-  // Count only rows with data in the front column
-  const lastRow = sheet.getLastRow();
-  const frontColumn = sheet.getRange(FIRST_ROW, FRONT_COLUMN, lastRow - FIRST_ROW + 1, 1).getValues();
-  let totalCards = 0;
-  for (let i = 0; i < frontColumn.length; i++) {
-    if (frontColumn[i][0] && frontColumn[i][0].toString().trim() !== '') {
-      totalCards++;
-    }
-  }
+  // Read the version before the data, so the data is never older than it claims
+  const version = getSheetVersion(sheetName);
+  const totalCards = getCardCount(sheet);
 
   if (cardNumber > totalCards) {
     return errorResponse('Card number exceeds total cards');
   }
 
-  const row = FIRST_ROW + cardNumber - 1;
-  const frontSide = sheet.getRange(row, FRONT_COLUMN).getValue();
-  const backSide = sheet.getRange(row, BACK_COLUMN).getValue();
-  const importance = sheet.getRange(row, IMPORTANCE_COLUMN).getValue() || 0;
-  const frontPronunciation = sheet.getRange(row, FRONT_PRONUNCIATION_COLUMN).getValue() || "";
-  const backPronunciation = sheet.getRange(row, BACK_PRONUNCIATION_COLUMN).getValue() || "";
-  const frontSideExtra = sheet.getRange(row, FRONT_EXTRA_COLUMN).getValue() || "";
-  const backSideExtra = sheet.getRange(row, BACK_EXTRA_COLUMN).getValue() || "";
-
-  // Get rich text formatting
-  const frontRichText = sheet.getRange(row, FRONT_COLUMN).getRichTextValue();
-  const backRichText = sheet.getRange(row, BACK_COLUMN).getRichTextValue();
-
-  const flashcard = {
-    frontSide: convertRichTextToHtml(frontSide, frontRichText),
-    backSide: convertRichTextToHtml(backSide, backRichText),
-    currentNum: cardNumber,
-    totalCards: totalCards,
-    importance: parseInt(importance) || 0,
-    frontPronunciation: frontPronunciation.toString(),
-    backPronunciation: backPronunciation.toString(),
-    frontSideExtra: frontSideExtra.toString(),
-    backSideExtra: backSideExtra.toString()
-  };
+  const flashcard = readCards(sheet, cardNumber, 1, totalCards, parseFields(e))[0];
+  flashcard.version = version;
 
+  Logger.log('getFlashcard ' + sheetName + ' #' + cardNumber + ' in ' + (Date.now() - startTime) + 'ms');
   return jsonResponse(flashcard);
 }
 
@@ -122,6 +157,7 @@ function getFlashcard(e) {
  * Get multiple flashcards in a batch
  */
 function getFlashcardBatch(e) {
+  const startTime = Date.now();
   const startCard = parseInt(e.parameter.startCard);
   const count = parseInt(e.parameter.count) || 10; // Default to 10 cards
   const sheetName = e.parameter.sheetName || SHEET_NAME;
@@ -135,15 +171,9 @@ function getFlashcardBatch(e) {
     return errorResponse('Sheet not found: ' + sheetName);
   }
 
-  // Count only rows with data in the front column
-  const lastRow = sheet.getLastRow();
-  const frontColumn = sheet.getRange(FIRST_ROW, FRONT_COLUMN, lastRow - FIRST_ROW + 1, 1).getValues();
-  let totalCards = 0;
-  for (let i = 0; i < frontColumn.length; i++) {
-    if (frontColumn[i][0] && frontColumn[i][0].toString().trim() !== '') {
-      totalCards++;
-    }
-  }
+  // Read the version before the data, so the data is never older than it claims
+  const version = getSheetVersion(sheetName);
+  const totalCards = getCardCount(sheet);
 
   const endCard = Math.min(startCard + count - 1, totalCards);
 
@@ -151,29 +181,108 @@ function getFlashcardBatch(e) {
     return errorResponse('Start card number exceeds total cards');
   }
 
-  const flashcards = [];
-  const startRow = FIRST_ROW + startCard - 1;
-  const numRows = endCard - startCard + 1;
+  const flashcards = readCards(sheet, startCard, endCard - startCard + 1, totalCards, parseFields(e));
 
-  // Fetch all data at once for better performance (7 columns: front, back, frontPronunciation, backPronunciation, frontSideExtra, backSideExtra, importance)
-  const data = sheet.getRange(startRow, FRONT_COLUMN, numRows, 7).getValues();
-  const richTextData = sheet.getRange(startRow, FRONT_COLUMN, numRows, 2).getRichTextValues();
+  // Clients that understand it ask for the compact format; others get the card objects
+  const compact = e.parameter.format === "compact";
+  const json = JSON.stringify(compact
+    ? compactBatch(flashcards, startCard, totalCards, version)
+    : { version: version, cards: flashcards });
 
+  Logger.log('getFlashcardBatch ' + sheetName + ' #' + startCard + '-' + endCard + ' in ' + (Date.now() - startTime) + 'ms, '
+    + json.length + ' chars' + (compact ? ' (compact)' : ''));
+  return ContentService.createTextOutput(json).setMimeType(ContentService.MimeType.JSON);
+}
+
+/**
+ * Columnar batch: the field names and the values shared by all cards are sent
+ * once, then one array of values per card in "fields" order. Card numbers
+ * follow from startCard.
+ */
+function compactBatch(cards, startCard, totalCards, version) {
+  const fields = cards.length > 0 ? CARD_FIELDS.filter(field => field in cards[0]) : [];
+  return {
+    format: "compact",
+    version: version,
+    totalCards: totalCards,
+    startCard: startCard,
+    fields: fields,
+    rows: cards.map(card => fields.map(field => card[field]))
+  };
+}
+
+/**
+ * Run from the Apps Script editor to log the size of a 200-card batch in both formats
+ */
+function compareBatchFormats(sheetName) {
+  const sheet = SpreadsheetApp.getActiveSpreadsheet().getSheetByName(sheetName || SHEET_NAME);
+  const totalCards = getCardCount(sheet);
+  const count = Math.min(200, totalCards);
+  const cards = readCards(sheet, 1, count, totalCards, null);
+  const version = getSheetVersion(sheet.getName());
+
+  const full = JSON.stringify({ cards: cards, version: version }).length;
+  const compact = JSON.stringify(compactBatch(cards, 1, totalCards, version)).length;
+  Logger.log(count + ' cards: ' + full + ' chars as objects, ' + compact + ' chars compact ('
+    + Math.round(100 - compact * 100 / full) + '% smaller)');
+}
+
+/**
+ * Current data version of a sheet
+ */
+function getSheetVersionInfo(e) {
+  const sheetName = e.parameter.sheetName || SHEET_NAME;
+  return jsonResponse({ sheetName: sheetName, version: getSheetVersion(sheetName) });
+}
+
+/**
+ * Read consecutive cards: plain values of all card columns (A-G) in one range
+ * read, and front/back HTML from the rendered HTML cache.
+ * fields (optional) limits each card to those CARD_FIELDS; currentNum and
+ * totalCards are always included. HTML is not rendered unless requested.
+ */
+function readCards(sheet, startCard, numCards, totalCards, fields) {
+  const startRow = FIRST_ROW + startCard - 1;
+  const data = sheet.getRange(startRow, FRONT_COLUMN, numCards, CARD_COLUMN_COUNT).getValues();
+  const wantsHtml = !fields || fields.indexOf("frontSide") !== -1 || fields.indexOf("backSide") !== -1;
+  const html = wantsHtml ? getRenderedHtml(sheet, startRow, data) : null;
+
+  const cards = [];
   for (let i = 0; i < data.length; i++) {
-    flashcards.push({
-      frontSide: convertRichTextToHtml(data[i][0], richTextData[i][0]),
-      backSide: convertRichTextToHtml(data[i][1], richTextData[i][1]),
+    const row = data[i];
+    const card = {
+      frontSide: html ? html[i][0] : "",
+      backSide: html ? html[i][1] : "",
       currentNum: startCard + i,
       totalCards: totalCards,
-      importance: parseInt(data[i][6]) || 0,
-      frontPronunciation: (data[i][2] || "").toString(),
-      backPronunciation: (data[i][3] || "").toString(),
-      frontSideExtra: (data[i][4] || "").toString(),
-      backSideExtra: (data[i][5] || "").toString()
-    });
+      importance: parseInt(row[IMPORTANCE_COLUMN - FRONT_COLUMN]) || 0,
+      frontPronunciation: (row[FRONT_PRONUNCIATION_COLUMN - FRONT_COLUMN] || "").toString(),
+      backPronunciation: (row[BACK_PRONUNCIATION_COLUMN - FRONT_COLUMN] || "").toString(),
+      frontSideExtra: (row[FRONT_EXTRA_COLUMN - FRONT_COLUMN] || "").toString(),
+      backSideExtra: (row[BACK_EXTRA_COLUMN - FRONT_COLUMN] || "").toString()
+    };
+    if (fields) {
+      CARD_FIELDS.forEach(field => {
+        if (fields.indexOf(field) === -1) {
+          delete card[field];
+        }
+      });
+    }
+    cards.push(card);
   }
+  return cards;
+}
 
-  return jsonResponse({ cards: flashcards });
+/**
+ * Optional "fields" parameter: comma-separated CARD_FIELDS to return, or null for all
+ */
+function parseFields(e) {
+  if (!e.parameter.fields) {
+    return null;
+  }
+  return e.parameter.fields.split(",")
+    .map(field => field.trim())
+    .filter(field => CARD_FIELDS.indexOf(field) !== -1);
 }
 
 /**
@@ -193,22 +302,9 @@ function getFlashcardStartingInfo(e) {
       settingsSheet.getRange("B1").setValue("Current Card");
     }
 
-    // Find the row for this sheet
-    const lastRow = settingsSheet.getLastRow();
-    const data = settingsSheet.getRange(SETTINGS_FIRST_ROW, SETTINGS_SHEET_NAME_COLUMN,
-                                        Math.max(1, lastRow - SETTINGS_FIRST_ROW + 1), 2).getValues();
-
-    let cardNumber = 1;
-    for (let i = 0; i < data.length; i++) {
-      if (data[i][0] === sheetName) {
-        cardNumber = parseInt(data[i][1]) || 1;
-        break;
-      }
-    }
-
     const info = {
       sheetName: sheetName,
-      questionNumber: cardNumber
+      questionNumber: findSavedCardNumber(settingsSheet, sheetName)
     };
 
     return jsonResponse(info);
@@ -221,10 +317,72 @@ function getFlashcardStartingInfo(e) {
   }
 }
 
+/**
+ * Saved progress of a sheet in the Settings sheet, 1 if there is none
+ */
+function findSavedCardNumber(settingsSheet, sheetName) {
+  const lastRow = settingsSheet.getLastRow();
+  const data = settingsSheet.getRange(SETTINGS_FIRST_ROW, SETTINGS_SHEET_NAME_COLUMN,
+                                      Math.max(1, lastRow - SETTINGS_FIRST_ROW + 1), 2).getValues();
+
+  for (let i = 0; i < data.length; i++) {
+    if (data[i][0] === sheetName) {
+      return parseInt(data[i][1]) || 1;
+    }
+  }
+  return 1;
+}
+
+/**
+ * Everything a cold start needs in one round trip: the sheet list, the saved
+ * progress of the requested sheet (or the first sheet if it is missing), and
+ * the cards around that position as a compact batch
+ */
+function bootstrap(e) {
+  const startTime = Date.now();
+  const ss = SpreadsheetApp.getActiveSpreadsheet();
+  const sheets = ss.getSheets().map(sheet => sheet.getName()).filter(isCardSheet);
+  if (sheets.length === 0) {
+    return errorResponse('No sheets found in spreadsheet');
+  }
+
+  const sheetName = sheets.indexOf(e.parameter.sheetName) !== -1 ? e.parameter.sheetName : sheets[0];
+  const sheet = ss.getSheetByName(sheetName);
+  const settingsSheet = ss.getSheetByName(SETTINGS_SHEET);
+
+  const version = getSheetVersion(sheetName);
+  const totalCards = getCardCount(sheet);
+  const saved = settingsSheet ? findSavedCardNumber(settingsSheet, sheetName) : 1;
+  const questionNumber = Math.max(1, Math.min(saved, totalCards));
+
+  const response = {
+    sheets: sheets,
+    sheetName: sheetName,
+    questionNumber: questionNumber,
+    version: version
+  };
+  if (!triggersInstalled()) {
+    response.untracked = true; // Stored cards may miss sheet edits, see getChangesSince
+  }
+  if (totalCards > 0) {
+    const startCard = Math.max(1, questionNumber - BOOTSTRAP_CARDS_BEHIND);
+    const endCard = Math.min(totalCards, questionNumber + BOOTSTRAP_CARDS_AHEAD);
+    const cards = readCards(sheet, startCard, endCard - startCard + 1, totalCards, null);
+    response.batch = compactBatch(cards, startCard, totalCards, version);
+  }
+
+  Logger.log('bootstrap ' + sheetName + ' #' + questionNumber + ' in ' + (Date.now() - startTime) + 'ms');
+  return jsonResponse(response);
+}
+
 /**
  * POST handler (for future features like saving progress)
  */
 function doPost(e) {
+  return encodeResponse(e, handlePost(e));
+}
+
+function handlePost(e) {
   const action = e.parameter.action;
 
   try {
@@ -235,6 +393,8 @@ function doPost(e) {
         return saveImportance(e);
       case 'saveCardContent':
         return saveCardContent(e);
+      case 'applyMutations':
+        return applyMutations(e);
       default:
         return errorResponse('Unknown action: ' + action);
     }
@@ -311,8 +471,327 @@ function saveImportance(e) {
     return errorResponse('Sheet not found: ' + sheetName);
   }
 
-  // Count only rows with data in the front column
+  const totalCards = getCardCount(sheet);
+
+  if (cardNumber > totalCards) {
+    return errorResponse('Card number exceeds total cards');
+  }
+
+  const row = FIRST_ROW + cardNumber - 1;
+  sheet.getRange(row, IMPORTANCE_COLUMN).setValue(importance);
+  const version = bumpSheetVersion(sheetName, [{ card: cardNumber, fields: ["importance"] }]);
+
+  return jsonResponse({ success: true, version: version });
+}
+
+/**
+ * Apply a batch of queued changes from the app in one execution.
+ *
+ * POST body: { "mutations": [ { id, type, sheetName, cardNumber, importance, side, html }, ... ] }
+ * type is "importance", "progress" or "content". Importance values are written
+ * with one setValues per sheet and progress with one write to the Settings sheet.
+ * Returns { success: true, versions: { sheetName: version }, results: [ { id, success } or { id, error } ] }.
+ */
+function applyMutations(e) {
+  let mutations;
+  try {
+    mutations = JSON.parse(e.postData.contents).mutations;
+  } catch (error) {
+    return errorResponse('Invalid mutation batch: ' + error.toString());
+  }
+  if (!Array.isArray(mutations)) {
+    return errorResponse('No mutations provided');
+  }
+
+  // Serialize with other batches so grouped read-modify-write cycles do not interleave
+  const lock = LockService.getScriptLock();
+  if (!lock.tryLock(30000)) {
+    return errorResponse('Server busy, try again later');
+  }
+
+  try {
+    const ss = SpreadsheetApp.getActiveSpreadsheet();
+    const results = {};
+    const sheets = {};       // sheetName -> { sheet, totalCards }
+    const importance = {};   // sheetName -> { cardNumber: importance }, latest wins
+    const progress = {};     // sheetName -> cardNumber, latest wins
+    const changes = {};      // sheetName -> [{ card, fields }] for the change log
+
+    function getSheetInfo(sheetName) {
+      if (!(sheetName in sheets)) {
+        const sheet = ss.getSheetByName(sheetName);
+        sheets[sheetName] = sheet ? { sheet: sheet, totalCards: getCardCount(sheet) } : null;
+      }
+      return sheets[sheetName];
+    }
+
+    mutations.forEach(function(mutation) {
+      const id = mutation.id;
+      const sheetName = mutation.sheetName || SHEET_NAME;
+      const cardNumber = parseInt(mutation.cardNumber);
+
+      if (!cardNumber || cardNumber < 1) {
+        results[id] = { id: id, error: 'Invalid card number' };
+        return;
+      }
+
+      if (mutation.type === 'progress') {
+        progress[sheetName] = cardNumber;
+        results[id] = { id: id, success: true };
+        return;
+      }
+
+      const info = getSheetInfo(sheetName);
+      if (!info) {
+        results[id] = { id: id, error: 'Sheet not found: ' + sheetName };
+        return;
+      }
+      if (cardNumber > info.totalCards) {
+        results[id] = { id: id, error: 'Card number exceeds total cards' };
+        return;
+      }
+
+      if (mutation.type === 'importance') {
+        const level = parseInt(mutation.importance);
+        if (isNaN(level) || level < 0 || level > 3) {
+          results[id] = { id: id, error: 'Invalid importance level (must be 0-3)' };
+          return;
+        }
+        importance[sheetName] = importance[sheetName] || {};
+        importance[sheetName][cardNumber] = level;
+        results[id] = { id: id, success: true };
+      } else if (mutation.type === 'content') {
+        if (mutation.side !== 'front' && mutation.side !== 'back') {
+          results[id] = { id: id, error: 'Invalid side (must be "front" or "back")' };
+          return;
+        }
+        if (!mutation.html) {
+          results[id] = { id: id, error: 'No HTML content provided' };
+          return;
+        }
+        try {
+          // Rich text cells cannot be grouped with setValues
+          const column = (mutation.side === 'front') ? FRONT_COLUMN : BACK_COLUMN;
+          const row = FIRST_ROW + cardNumber - 1;
+          info.sheet.getRange(row, column).setRichTextValue(htmlToRichText(mutation.html));
+          invalidateRenderedHtml(sheetName, row, 1, column, 1);
+          changes[sheetName] = changes[sheetName] || [];
+          changes[sheetName].push({ card: cardNumber, fields: [mutation.side + "Side"] });
+          results[id] = { id: id, success: true };
+        } catch (error) {
+          results[id] = { id: id, error: 'Failed to save: ' + error.toString() };
+        }
+      } else {
+        results[id] = { id: id, error: 'Unknown mutation type: ' + mutation.type };
+      }
+    });
+
+    // One write per run of consecutive cards, so cells in between are never touched
+    Object.keys(importance).forEach(function(sheetName) {
+      const sheet = sheets[sheetName].sheet;
+      const levels = importance[sheetName];
+      const cardNumbers = Object.keys(levels).map(Number).sort(function(a, b) { return a - b; });
+      changes[sheetName] = changes[sheetName] || [];
+      let runStart = 0;
+      for (let i = 1; i <= cardNumbers.length; i++) {
+        if (i < cardNumbers.length && cardNumbers[i] === cardNumbers[i - 1] + 1) {
+          continue;
+        }
+        const run = cardNumbers.slice(runStart, i);
+        sheet.getRange(FIRST_ROW + run[0] - 1, IMPORTANCE_COLUMN, run.length, 1)
+          .setValues(run.map(function(cardNumber) { return [levels[cardNumber]]; }));
+        runStart = i;
+      }
+      cardNumbers.forEach(function(cardNumber) {
+        changes[sheetName].push({ card: cardNumber, fields: ["importance"] });
+      });
+    });
+
+    if (Object.keys(progress).length > 0) {
+      saveProgressBatch(ss, progress);
+    }
+
+    const versions = {};
+    Object.keys(changes).forEach(function(sheetName) {
+      versions[sheetName] = bumpSheetVersion(sheetName, changes[sheetName]);
+    });
+
+    SpreadsheetApp.flush();
+    Logger.log('Applied ' + mutations.length + ' mutations');
+
+    return jsonResponse({
+      success: true,
+      versions: versions,
+      results: mutations.map(function(mutation) { return results[mutation.id]; })
+    });
+  } finally {
+    lock.releaseLock();
+  }
+}
+
+/**
+ * Write the progress of several sheets with one Settings read and one write
+ */
+function saveProgressBatch(ss, progress) {
+  let settingsSheet = ss.getSheetByName(SETTINGS_SHEET);
+
+  // Create settings sheet if it doesn't exist
+  if (!settingsSheet) {
+    settingsSheet = ss.insertSheet(SETTINGS_SHEET);
+    settingsSheet.getRange("A1").setValue("Sheet Name");
+    settingsSheet.getRange("B1").setValue("Current Card");
+  }
+
+  const lastRow = Math.max(settingsSheet.getLastRow(), SETTINGS_FIRST_ROW - 1);
+  const data = lastRow >= SETTINGS_FIRST_ROW
+    ? settingsSheet.getRange(SETTINGS_FIRST_ROW, SETTINGS_SHEET_NAME_COLUMN, lastRow - SETTINGS_FIRST_ROW + 1, 2).getValues()
+    : [];
+
+  Object.keys(progress).forEach(function(sheetName) {
+    let found = false;
+    for (let i = 0; i < data.length; i++) {
+      if (data[i][0] === sheetName) {
+        data[i][1] = progress[sheetName];
+        found = true;
+        break;
+      }
+    }
+    if (!found) {
+      data.push([sheetName, progress[sheetName]]);
+    }
+  });
+
+  settingsSheet.getRange(SETTINGS_FIRST_ROW, SETTINGS_SHEET_NAME_COLUMN, data.length, 2).setValues(data);
+}
+
+/**
+ * Total cards of a sheet without rescanning the front column on every request.
+ *
+ * The count is kept in CacheService, backed by PropertiesService, together with
+ * the sheet's last row. It is recounted when the last row moves (rows added or
+ * removed) or after the edit triggers from installTriggers() invalidate it.
+ * Without those triggers a front cell cleared or filled in place would go
+ * unnoticed, so the count is then also recounted after a few minutes.
+ */
+function getCardCount(sheet) {
+  const key = CARD_COUNT_KEY_PREFIX + sheet.getName();
+  const lastRow = sheet.getLastRow();
+  const cache = CacheService.getScriptCache();
+
+  let stored = cache.get(key);
+  if (stored === null) {
+    stored = PropertiesService.getScriptProperties().getProperty(key);
+  }
+  if (stored !== null) {
+    const entry = JSON.parse(stored);
+    const fresh = triggersInstalled()
+      || (entry.countedAt && Date.now() - entry.countedAt < CARD_COUNT_UNTRIGGERED_SECONDS * 1000);
+    if (entry.lastRow === lastRow && fresh) {
+      return entry.count;
+    }
+  }
+
+  const count = countCards(sheet);
+  const entry = JSON.stringify({ count: count, lastRow: lastRow, countedAt: Date.now() });
+  cache.put(key, entry, CARD_COUNT_CACHE_SECONDS);
+  PropertiesService.getScriptProperties().setProperty(key, entry);
+  Logger.log('Counted ' + count + ' cards in ' + sheet.getName());
+  return count;
+}
+
+/**
+ * Forget the cached card count of a sheet
+ */
+function invalidateCardCount(sheetName) {
+  const key = CARD_COUNT_KEY_PREFIX + sheetName;
+  CacheService.getScriptCache().remove(key);
+  PropertiesService.getScriptProperties().deleteProperty(key);
+}
+
+/**
+ * Installable onEdit trigger: an edit in the front column can change the count,
+ * and edits to front/back cells change their rendered HTML
+ */
+function onSheetEdit(e) {
+  const range = e.range;
+  const sheetName = range.getSheet().getName();
+  if (!isCardSheet(sheetName)) {
+    return;
+  }
+  bumpSheetVersion(sheetName, changesForRange(range));
+  if (range.getColumn() <= FRONT_COLUMN && range.getLastColumn() >= FRONT_COLUMN) {
+    invalidateCardCount(sheetName);
+  }
+  // Formatting-only edits keep the plain text hash, so drop rendered HTML explicitly
+  invalidateRenderedHtml(sheetName, range.getRow(), range.getNumRows(), range.getColumn(), range.getNumColumns());
+}
+
+/**
+ * Installable onChange trigger: structural changes (rows inserted or removed,
+ * sheets renamed) are not reported per range, so forget every cached count
+ * and all rendered HTML
+ */
+function onSheetChange(e) {
+  if (e.changeType === 'EDIT' || e.changeType === 'FORMAT') {
+    return; // Covered by onSheetEdit
+  }
+  const props = PropertiesService.getScriptProperties();
+  const keys = props.getKeys().filter(key => key.indexOf(CARD_COUNT_KEY_PREFIX) === 0);
+  keys.forEach(key => props.deleteProperty(key));
+  CacheService.getScriptCache().removeAll(keys);
+
+  // Rows may have moved, so cached HTML can belong to other cards now
+  bumpHtmlEpoch();
+  SpreadsheetApp.getActiveSpreadsheet().getSheets()
+    .map(sheet => sheet.getName())
+    .filter(isCardSheet)
+    .forEach(sheetName => bumpSheetVersion(sheetName, null));
+}
+
+/**
+ * Run once from the Apps Script editor to install the cache invalidation triggers
+ */
+function installTriggers() {
+  const ss = SpreadsheetApp.getActiveSpreadsheet();
+  ScriptApp.getProjectTriggers().forEach(trigger => {
+    const handler = trigger.getHandlerFunction();
+    if (handler === 'onSheetEdit' || handler === 'onSheetChange') {
+      ScriptApp.deleteTrigger(trigger);
+    }
+  });
+  ScriptApp.newTrigger('onSheetEdit').forSpreadsheet(ss).onEdit().create();
+  ScriptApp.newTrigger('onSheetChange').forSpreadsheet(ss).onChange().create();
+  CacheService.getScriptCache().remove(TRIGGERS_INSTALLED_KEY);
+  Logger.log('Installed onSheetEdit and onSheetChange triggers');
+}
+
+/**
+ * True if both triggers from installTriggers() exist. Listing the project
+ * triggers is slow, so the answer is cached for a few minutes.
+ */
+function triggersInstalled() {
+  const cache = CacheService.getScriptCache();
+  const cached = cache.get(TRIGGERS_INSTALLED_KEY);
+  if (cached !== null) {
+    return cached === 'true';
+  }
+  const handlers = ScriptApp.getProjectTriggers().map(trigger => trigger.getHandlerFunction());
+  const installed = handlers.indexOf('onSheetEdit') !== -1 && handlers.indexOf('onSheetChange') !== -1;
+  cache.put(TRIGGERS_INSTALLED_KEY, String(installed), TRIGGERS_CHECK_SECONDS);
+  if (!installed) {
+    Logger.log('Edit triggers not installed: run installTriggers() from the editor');
+  }
+  return installed;
+}
+
+/**
+ * Count rows with data in the front column
+ */
+function countCards(sheet) {
   const lastRow = sheet.getLastRow();
+  if (lastRow < FIRST_ROW) {
+    return 0;
+  }
   const frontColumn = sheet.getRange(FIRST_ROW, FRONT_COLUMN, lastRow - FIRST_ROW + 1, 1).getValues();
   let totalCards = 0;
   for (let i = 0; i < frontColumn.length; i++) {
@@ -320,15 +799,25 @@ function saveImportance(e) {
       totalCards++;
     }
   }
+  return totalCards;
+}
 
-  if (cardNumber > totalCards) {
-    return errorResponse('Card number exceeds total cards');
+/**
+ * Compress a response as {"encoding": "gzip+base64", "data": ...} if the
+ * request asked for it with encoding=gzip and it is large enough to benefit
+ */
+function encodeResponse(e, output) {
+  if (e.parameter.encoding !== 'gzip') {
+    return output;
   }
-
-  const row = FIRST_ROW + cardNumber - 1;
-  sheet.getRange(row, IMPORTANCE_COLUMN).setValue(importance);
-
-  return jsonResponse({ success: true });
+  const json = output.getContent();
+  if (json.length < GZIP_MIN_CHARS) {
+    return output;
+  }
+  const gzipped = Utilities.gzip(Utilities.newBlob(json, 'application/json'));
+  const encoded = JSON.stringify({ encoding: GZIP_ENCODING, data: Utilities.base64Encode(gzipped.getBytes()) });
+  Logger.log('Compressed response: ' + json.length + ' -> ' + encoded.length + ' chars');
+  return ContentService.createTextOutput(encoded).setMimeType(ContentService.MimeType.JSON);
 }
 
 /**
@@ -349,11 +838,444 @@ function getAvailableSheets(e) {
 
   const sheetNames = sheets
     .map(sheet => sheet.getName())
-    .filter(name => name !== SETTINGS_SHEET); // Exclude Settings sheet
+    .filter(isCardSheet); // Exclude Settings and change log sheets
 
   return jsonResponse({ sheets: sheetNames });
 }
 
+/**
+ * Version of a sheet's card data; increases whenever a card is written
+ */
+function getSheetVersion(sheetName) {
+  return parseInt(PropertiesService.getScriptProperties().getProperty(SHEET_VERSION_KEY_PREFIX + sheetName) || "0");
+}
+
+/**
+ * Increment a sheet's version and log what changed: changes is a list of
+ * { card, fields } or null for changes that cannot be described per card.
+ * Uses the document lock (applyMutations holds the script lock) so concurrent
+ * writers never hand out the same version twice.
+ */
+function bumpSheetVersion(sheetName, changes) {
+  const lock = LockService.getDocumentLock();
+  lock.waitLock(10000);
+  try {
+    const props = PropertiesService.getScriptProperties();
+    const version = parseInt(props.getProperty(SHEET_VERSION_KEY_PREFIX + sheetName) || "0") + 1;
+    props.setProperty(SHEET_VERSION_KEY_PREFIX + sheetName, String(version));
+
+    const rows = changes
+      ? changes.map(change => [sheetName, version, change.card, change.fields.join(",")])
+      : [[sheetName, version, 0, ""]];
+    appendChangeLog(rows);
+    return version;
+  } finally {
+    lock.releaseLock();
+  }
+}
+
+function isCardSheet(sheetName) {
+  return sheetName !== SETTINGS_SHEET && sheetName !== CHANGE_LOG_SHEET;
+}
+
+/**
+ * Card/field changes covered by an edited range, or null if it is too large to log
+ */
+function changesForRange(range) {
+  const firstColumn = Math.max(range.getColumn(), FRONT_COLUMN);
+  const lastColumn = Math.min(range.getLastColumn(), FRONT_COLUMN + CARD_COLUMN_COUNT - 1);
+  const firstRow = Math.max(range.getRow(), FIRST_ROW);
+  const lastRow = range.getLastRow();
+  if (firstColumn > lastColumn || firstRow > lastRow) {
+    return []; // Outside the card columns; still bumps the version
+  }
+  if (lastRow - firstRow + 1 > MAX_LOGGED_ROWS_PER_EDIT) {
+    return null;
+  }
+
+  const fields = CARD_FIELDS.slice(firstColumn - FRONT_COLUMN, lastColumn - FRONT_COLUMN + 1);
+  const changes = [];
+  for (let row = firstRow; row <= lastRow; row++) {
+    changes.push({ card: row - FIRST_ROW + 1, fields: fields });
+  }
+  return changes;
+}
+
+/**
+ * Append rows to the hidden change log, pruning the oldest rows when it grows
+ * too long. Pruned versions raise each sheet's floor: clients older than the
+ * floor must resync. Called with the document lock held.
+ */
+function appendChangeLog(rows) {
+  if (rows.length === 0) {
+    return;
+  }
+  const ss = SpreadsheetApp.getActiveSpreadsheet();
+  let log = ss.getSheetByName(CHANGE_LOG_SHEET);
+  if (!log) {
+    log = ss.insertSheet(CHANGE_LOG_SHEET);
+    log.getRange(1, 1, 1, 4).setValues([["Sheet", "Version", "Card", "Fields"]]);
+    log.hideSheet();
+  }
+
+  log.getRange(log.getLastRow() + 1, 1, rows.length, 4).setValues(rows);
+
+  const lastRow = log.getLastRow();
+  if (lastRow - 1 > CHANGE_LOG_MAX_ROWS + CHANGE_LOG_PRUNE_ROWS) {
+    const pruned = log.getRange(2, 1, CHANGE_LOG_PRUNE_ROWS, 2).getValues();
+    const props = PropertiesService.getScriptProperties();
+    const floors = {};
+    pruned.forEach(row => {
+      floors[row[0]] = Math.max(floors[row[0]] || 0, parseInt(row[1]));
+    });
+    Object.keys(floors).forEach(sheetName => {
+      props.setProperty(CHANGE_LOG_FLOOR_KEY_PREFIX + sheetName, String(floors[sheetName]));
+    });
+    log.deleteRows(2, CHANGE_LOG_PRUNE_ROWS);
+  }
+}
+
+/**
+ * Cards changed since a version the client already has.
+ *
+ * Returns { version, totalCards, changes: [ { cardNumber, <changed fields> } ] }
+ * with the current values of only the fields that changed, or
+ * { resync: true, version } when the log cannot describe the difference
+ * (structural edits, pruned history, or too many changes).
+ */
+function getChangesSince(e) {
+  const startTime = Date.now();
+  const sheetName = e.parameter.sheetName || SHEET_NAME;
+  const since = parseInt(e.parameter.sinceVersion);
+
+  if (isNaN(since) || since < 0) {
+    return errorResponse('Invalid sinceVersion');
+  }
+
+  const sheet = SpreadsheetApp.getActiveSpreadsheet().getSheetByName(sheetName);
+  if (!sheet) {
+    return errorResponse('Sheet not found: ' + sheetName);
+  }
+
+  // Read the version before the data, so the data is never older than it claims
+  const version = getSheetVersion(sheetName);
+
+  // Without the edit triggers neither the version nor the change log sees edits
+  // made in the sheet, so no copy the client has can be vouched for
+  if (!triggersInstalled()) {
+    return jsonResponse({ resync: true, untracked: true, version: version });
+  }
+  if (since === version) {
+    return jsonResponse({ version: version, changes: [] });
+  }
+
+  const floor = parseInt(PropertiesService.getScriptProperties().getProperty(CHANGE_LOG_FLOOR_KEY_PREFIX + sheetName) || "0");
+  const log = SpreadsheetApp.getActiveSpreadsheet().getSheetByName(CHANGE_LOG_SHEET);
+  if (since > version || since < floor || !log || log.getLastRow() < 2) {
+    return jsonResponse({ resync: true, version: version });
+  }
+
+  // Union of changed fields per card
+  const changedFields = {};
+  const entries = log.getRange(2, 1, log.getLastRow() - 1, 4).getValues();
+  for (let i = 0; i < entries.length; i++) {
+    const entry = entries[i];
+    const entryVersion = parseInt(entry[1]);
+    if (entry[0] !== sheetName || entryVersion <= since || entryVersion > version) {
+      continue;
+    }
+    const card = parseInt(entry[2]);
+    if (!card) {
+      return jsonResponse({ resync: true, version: version });
+    }
+    changedFields[card] = changedFields[card] || {};
+    entry[3].toString().split(",").filter(field => field).forEach(field => {
+      changedFields[card][field] = true;
+    });
+  }
+
+  const cardNumbers = Object.keys(changedFields).map(Number).sort((a, b) => a - b);
+  if (cardNumbers.length > MAX_CHANGES_PER_RESPONSE) {
+    return jsonResponse({ resync: true, version: version });
+  }
+
+  const totalCards = getCardCount(sheet);
+  const changes = [];
+  const wanted = cardNumbers.filter(cardNumber => cardNumber <= totalCards); // Others are no longer cards
+
+  // Read runs of consecutive cards with one readCards call each
+  for (let start = 0; start < wanted.length; ) {
+    let end = start;
+    while (end + 1 < wanted.length && wanted[end + 1] === wanted[end] + 1) {
+      end++;
+    }
+    const cards = readCards(sheet, wanted[start], end - start + 1, totalCards);
+    cards.forEach(card => {
+      const change = { cardNumber: card.currentNum };
+      Object.keys(changedFields[card.currentNum]).forEach(field => {
+        change[field] = card[field];
+      });
+      changes.push(change);
+    });
+    start = end + 1;
+  }
+
+  Logger.log('getChangesSince ' + sheetName + ' v' + since + '->v' + version + ': '
+    + changes.length + ' cards in ' + (Date.now() - startTime) + 'ms');
+  return jsonResponse({ version: version, totalCards: totalCards, changes: changes });
+}
+
+/**
+ * Whole-sheet snapshot for offline download.
+ *
+ * Without a chunk parameter, returns the manifest
+ * { sheetName, version, totalCards, chunkCount }. With chunk=n and the
+ * manifest's version, returns { version, chunk, cards }. The snapshot is built
+ * once per sheet version and kept in CacheService; a request for an older
+ * version gets an error and the client starts over with a new manifest.
+ */
+function getSheetSnapshot(e) {
+  const startTime = Date.now();
+  const sheetName = e.parameter.sheetName || SHEET_NAME;
+  const sheet = SpreadsheetApp.getActiveSpreadsheet().getSheetByName(sheetName);
+  if (!sheet) {
+    return errorResponse('Sheet not found: ' + sheetName);
+  }
+
+  const version = getSheetVersion(sheetName);
+  const cache = CacheService.getScriptCache();
+  const prefix = "snapshot:" + sheetName + ":" + version + ":";
+
+  let manifest = cache.get(prefix + "manifest");
+  if (manifest === null) {
+    manifest = buildSnapshot(sheet, version, prefix);
+  }
+
+  if (e.parameter.chunk === undefined) {
+    Logger.log('getSheetSnapshot ' + sheetName + ' manifest in ' + (Date.now() - startTime) + 'ms');
+    return ContentService.createTextOutput(manifest).setMimeType(ContentService.MimeType.JSON);
+  }
+
+  const chunk = parseInt(e.parameter.chunk);
+  if (parseInt(e.parameter.version) !== version) {
+    return errorResponse('Snapshot outdated');
+  }
+
+  let cards = cache.get(prefix + chunk);
+  if (cards === null) {
+    // Evicted since the manifest was built
+    buildSnapshot(sheet, version, prefix);
+    cards = cache.get(prefix + chunk);
+  }
+  if (cards === null) {
+    return errorResponse('Invalid snapshot chunk: ' + chunk);
+  }
+
+  Logger.log('getSheetSnapshot ' + sheetName + ' chunk ' + chunk + ' in ' + (Date.now() - startTime) + 'ms');
+  return ContentService
+    .createTextOutput('{"version":' + version + ',"chunk":' + chunk + ',"cards":' + cards + '}')
+    .setMimeType(ContentService.MimeType.JSON);
+}
+
+/**
+ * Render every card of a sheet into JSON chunks that fit CacheService values;
+ * returns the manifest JSON
+ */
+function buildSnapshot(sheet, version, prefix) {
+  const startTime = Date.now();
+  const totalCards = getCardCount(sheet);
+  const toPut = {};
+  let chunkCount = 0;
+  let chunk = [];
+  let chunkChars = 0;
+
+  function flushChunk() {
+    toPut[prefix + chunkCount] = "[" + chunk.join(",") + "]";
+    chunkCount++;
+    chunk = [];
+    chunkChars = 0;
+  }
+
+  for (let first = 1; first <= totalCards; first += SNAPSHOT_READ_ROWS) {
+    const count = Math.min(SNAPSHOT_READ_ROWS, totalCards - first + 1);
+    readCards(sheet, first, count, totalCards).forEach(card => {
+      const json = JSON.stringify(card);
+      if (chunk.length > 0 && chunkChars + json.length > SNAPSHOT_CHUNK_CHARS) {
+        flushChunk();
+      }
+      chunk.push(json);
+      chunkChars += json.length + 1;
+    });
+  }
+  if (chunk.length > 0) {
+    flushChunk();
+  }
+
+  const manifest = JSON.stringify({
+    sheetName: sheet.getName(),
+    version: version,
+    totalCards: totalCards,
+    chunkCount: chunkCount
+  });
+  toPut[prefix + "manifest"] = manifest;
+  CacheService.getScriptCache().putAll(toPut, SNAPSHOT_CACHE_SECONDS);
+
+  Logger.log('Built snapshot of ' + sheet.getName() + ' v' + version + ': ' + totalCards + ' cards in '
+    + chunkCount + ' chunks, ' + (Date.now() - startTime) + 'ms');
+  return manifest;
+}
+
+/**
+ * Front and back HTML for consecutive rows, as html[i] = [front, back].
+ *
+ * Rendered HTML is cached per (sheet, row, column) together with a hash of the
+ * cell's plain text, so a cell edited outside the triggers still misses. Rich
+ * text is only read from the sheet when at least one cell misses.
+ */
+function getRenderedHtml(sheet, startRow, data) {
+  const cache = CacheService.getScriptCache();
+  const prefix = htmlCachePrefix(sheet.getName());
+  const html = data.map(() => ["", ""]);
+
+  // Look up every non-empty front/back cell
+  const lookups = [];
+  for (let i = 0; i < data.length; i++) {
+    for (let c = 0; c < 2; c++) {
+      const value = data[i][c];
+      if (value === "" || value === null) {
+        continue; // Empty cells render to "" without rich text
+      }
+      const text = value.toString();
+      const key = htmlCacheKey(prefix, startRow + i, FRONT_COLUMN + c);
+      lookups.push({ i: i, c: c, text: text, key: key, hash: hashText(text) });
+    }
+  }
+  if (lookups.length === 0) {
+    return html;
+  }
+
+  const cached = readHtmlEntries(cache, lookups.map(lookup => lookup.key));
+  const misses = [];
+  lookups.forEach(lookup => {
+    const entry = cached[lookup.key];
+    if (entry && entry.hash === lookup.hash) {
+      html[lookup.i][lookup.c] = entry.html;
+    } else {
+      misses.push(lookup);
+    }
+  });
+
+  if (misses.length > 0) {
+    const richTextData = sheet.getRange(startRow, FRONT_COLUMN, data.length, 2).getRichTextValues();
+    const toPut = {};
+    misses.forEach(lookup => {
+      const rendered = convertRichTextToHtml(lookup.text, richTextData[lookup.i][lookup.c]);
+      html[lookup.i][lookup.c] = rendered;
+      addHtmlEntry(toPut, lookup.key, lookup.hash, rendered);
+    });
+    cache.putAll(toPut, HTML_CACHE_SECONDS);
+  }
+
+  Logger.log('Rendered HTML cache: ' + (lookups.length - misses.length) + ' hits, ' + misses.length + ' misses');
+  return html;
+}
+
+/**
+ * Cache key prefix for a sheet; bumping the epoch orphans every entry
+ */
+function htmlCachePrefix(sheetName) {
+  const epoch = PropertiesService.getScriptProperties().getProperty(HTML_EPOCH_KEY) || "0";
+  return "html:" + epoch + ":" + sheetName + ":";
+}
+
+function htmlCacheKey(prefix, row, column) {
+  return prefix + row + ":" + (column - FRONT_COLUMN);
+}
+
+function hashText(text) {
+  return Utilities.base64Encode(Utilities.computeDigest(Utilities.DigestAlgorithm.MD5, text, Utilities.Charset.UTF_8));
+}
+
+/**
+ * Entry format: hash|chunkCount|first chunk, remaining chunks under key#1, key#2, ...
+ */
+function addHtmlEntry(toPut, key, hash, html) {
+  const chunkCount = Math.max(1, Math.ceil(html.length / HTML_CACHE_CHUNK_CHARS));
+  toPut[key] = hash + "|" + chunkCount + "|" + html.substring(0, HTML_CACHE_CHUNK_CHARS);
+  for (let n = 1; n < chunkCount; n++) {
+    toPut[key + "#" + n] = html.substring(n * HTML_CACHE_CHUNK_CHARS, (n + 1) * HTML_CACHE_CHUNK_CHARS);
+  }
+}
+
+/**
+ * Read entries (joining chunks) as { key: { hash, html } }; incomplete entries are skipped
+ */
+function readHtmlEntries(cache, keys) {
+  const values = cache.getAll(keys);
+  const entries = {};
+  const chunked = [];
+  const chunkKeys = [];
+
+  Object.keys(values).forEach(key => {
+    const value = values[key];
+    const first = value.indexOf("|");
+    const second = value.indexOf("|", first + 1);
+    const entry = { hash: value.substring(0, first), html: value.substring(second + 1) };
+    const chunkCount = parseInt(value.substring(first + 1, second));
+    entries[key] = entry;
+    if (chunkCount > 1) {
+      chunked.push({ key: key, chunkCount: chunkCount });
+      for (let n = 1; n < chunkCount; n++) {
+        chunkKeys.push(key + "#" + n);
+      }
+    }
+  });
+
+  if (chunkKeys.length > 0) {
+    const chunks = cache.getAll(chunkKeys);
+    chunked.forEach(item => {
+      for (let n = 1; n < item.chunkCount; n++) {
+        const chunk = chunks[item.key + "#" + n];
+        if (chunk === undefined) {
+          delete entries[item.key]; // A chunk was evicted; re-render
+          return;
+        }
+        entries[item.key].html += chunk;
+      }
+    });
+  }
+  return entries;
+}
+
+/**
+ * Drop cached HTML for the front/back cells of a range (called after writes)
+ */
+function invalidateRenderedHtml(sheetName, firstRow, numRows, firstColumn, numColumns) {
+  const prefix = htmlCachePrefix(sheetName);
+  const keys = [];
+  for (let row = firstRow; row < firstRow + numRows; row++) {
+    for (let column = firstColumn; column < firstColumn + numColumns; column++) {
+      if (column === FRONT_COLUMN || column === BACK_COLUMN) {
+        keys.push(htmlCacheKey(prefix, row, column));
+      }
+    }
+  }
+  if (keys.length > MAX_CELLS_TO_INVALIDATE) {
+    bumpHtmlEpoch();
+  } else if (keys.length > 0) {
+    CacheService.getScriptCache().removeAll(keys);
+  }
+}
+
+/**
+ * Invalidate every cached HTML entry at once (e.g. after rows move)
+ */
+function bumpHtmlEpoch() {
+  const props = PropertiesService.getScriptProperties();
+  const epoch = parseInt(props.getProperty(HTML_EPOCH_KEY) || "0") + 1;
+  props.setProperty(HTML_EPOCH_KEY, String(epoch));
+}
+
 /**
  * Convert rich text formatting to HTML
  */
@@ -434,15 +1356,7 @@ function saveCardContent(e) {
     return errorResponse('Sheet not found: ' + sheetName);
   }
 
-  // Count only rows with data in the front column
-  const lastRow = sheet.getLastRow();
-  const frontColumn = sheet.getRange(FIRST_ROW, FRONT_COLUMN, lastRow - FIRST_ROW + 1, 1).getValues();
-  let totalCards = 0;
-  for (let i = 0; i < frontColumn.length; i++) {
-    if (frontColumn[i][0] && frontColumn[i][0].toString().trim() !== '') {
-      totalCards++;
-    }
-  }
+  const totalCards = getCardCount(sheet);
 
   if (cardNumber > totalCards) {
     return errorResponse('Card number exceeds total cards');
@@ -457,9 +1371,11 @@ function saveCardContent(e) {
 
     // Save to sheet
     sheet.getRange(row, column).setRichTextValue(richTextValue);
+    invalidateRenderedHtml(sheetName, row, 1, column, 1);
+    const version = bumpSheetVersion(sheetName, [{ card: cardNumber, fields: [side + "Side"] }]);
 
     Logger.log('Saved ' + side + ' content for card ' + cardNumber + ' in sheet ' + sheetName);
-    return jsonResponse({ success: true });
+    return jsonResponse({ success: true, version: version });
   } catch (error) {
     Logger.log('Error saving card content: ' + error.toString());
     return errorResponse('Failed to save: ' + error.toString());